@@ -0,0 +1,45 @@
+package com.hcrnjak.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.hcrnjak.config.security.authentication.AuthenticatedUser;
+import com.hcrnjak.model.User;
+
+/**
+ * Conversion of User entity to Spring Security principal, done on each login
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthenticatedUserBenchmark {
+
+    @Param({"1", "50"})
+    private int authorities;
+
+    private User user;
+
+    @Setup
+    public void setup() {
+        user = BenchmarkFixtures.user(authorities);
+    }
+
+    @Benchmark
+    public AuthenticatedUser from() {
+        return AuthenticatedUser.from(user);
+    }
+}
@@ -0,0 +1,86 @@
+package com.hcrnjak.benchmarks;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
+import org.springframework.security.access.expression.method.ExpressionBasedAnnotationAttributeFactory;
+import org.springframework.security.access.expression.method.ExpressionBasedPreInvocationAdvice;
+import org.springframework.security.access.prepost.PreInvocationAttribute;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.util.SimpleMethodInvocation;
+
+import com.hcrnjak.config.security.authentication.AuthenticatedUser;
+import com.hcrnjak.config.security.authentication.RoleAuthorities;
+import com.hcrnjak.config.security.authorization.CompiledPreInvocationAdvice;
+import com.hcrnjak.config.security.authorization.CompilingAttributeFactory;
+import com.hcrnjak.model.enums.Role;
+
+/**
+ * @PreAuthorize check of a JWT authenticated ADMIN, SpEL evaluation vs compiled role rule
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthorizationBenchmark {
+
+    @Param({"hasRole('ADMIN')", "hasAnyRole('USER', 'ADMIN') and !hasRole('USER')"})
+    private String expression;
+
+    private ExpressionBasedPreInvocationAdvice expressionAdvice;
+    private CompiledPreInvocationAdvice compiledAdvice;
+    private PreInvocationAttribute expressionAttribute;
+    private PreInvocationAttribute compiledAttribute;
+    private Authentication authentication;
+    private MethodInvocation invocation;
+
+    @Setup
+    public void setup() throws NoSuchMethodException {
+        DefaultMethodSecurityExpressionHandler expressionHandler = new DefaultMethodSecurityExpressionHandler();
+        ExpressionBasedAnnotationAttributeFactory expressionFactory = new ExpressionBasedAnnotationAttributeFactory(expressionHandler);
+        expressionAttribute = expressionFactory.createPreInvocationAttribute(null, null, expression);
+        compiledAttribute = new CompilingAttributeFactory(expressionFactory).createPreInvocationAttribute(null, null, expression);
+
+        expressionAdvice = new ExpressionBasedPreInvocationAdvice();
+        expressionAdvice.setExpressionHandler(expressionHandler);
+        compiledAdvice = new CompiledPreInvocationAdvice(expressionAdvice);
+
+        AuthenticatedUser user = new AuthenticatedUser(BenchmarkFixtures.USER_ID, "admin", null, null,
+                RoleAuthorities.fromBitmask(RoleAuthorities.bitOf(Role.ROLE_ADMIN)), true);
+        authentication = new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+
+        Method method = Object.class.getMethod("toString");
+        invocation = new SimpleMethodInvocation(new Object(), method);
+
+        // Both have to reach the same decision, otherwise the comparison is meaningless
+        if (!spel() || !compiled() || compiledAttribute == expressionAttribute) {
+            throw new IllegalStateException("Expression not compiled or decisions differ : " + expression);
+        }
+    }
+
+    @Benchmark
+    public boolean spel() {
+        return expressionAdvice.before(authentication, invocation, expressionAttribute);
+    }
+
+    @Benchmark
+    public boolean compiled() {
+        return compiledAdvice.before(authentication, invocation, compiledAttribute);
+    }
+}
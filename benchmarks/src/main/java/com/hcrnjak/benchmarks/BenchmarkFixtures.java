@@ -0,0 +1,153 @@
+package com.hcrnjak.benchmarks;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.hcrnjak.config.security.authentication.AuthenticatedUser;
+import com.hcrnjak.config.security.authentication.UserStateRegistry;
+import com.hcrnjak.config.security.jwt.JwtKeySet;
+import com.hcrnjak.config.security.jwt.JwtSignatureProperties;
+import com.hcrnjak.config.security.jwt.JwtTokenHandler;
+import com.hcrnjak.config.security.jwt.TokenClock;
+import com.hcrnjak.config.security.jwt.VerifiedTokenCache;
+import com.hcrnjak.config.security.metrics.AuthenticationMetrics;
+import com.hcrnjak.config.security.revocation.TokenRevocationList;
+import com.hcrnjak.config.security.state.InMemoryAuthenticationStateStore;
+import com.hcrnjak.model.Authority;
+import com.hcrnjak.model.User;
+import com.hcrnjak.model.enums.Role;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+
+/**
+ * Builds application components outside of Spring context, configured the same way as in application.yml
+ **/
+public final class BenchmarkFixtures {
+
+    public static final String APP_NAME = "spring-security-jwt";
+    public static final String SECRET = "mySecret";
+    public static final Long EXPIRATION = 604800L;
+    public static final String USER_AUTHORITIES_CLAIM = "aut";
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String USER_VERSION_CLAIM = "ver";
+    public static final Long USER_ID = 1000L;
+    public static final Long USER_VERSION = 1L;
+    public static final String TOKEN_HEADER = "Authorization";
+
+    private BenchmarkFixtures() {}
+
+    public static JwtTokenHandler tokenHandler(boolean cacheEnabled) {
+        return tokenHandler(cacheEnabled, SignatureAlgorithm.HS256);
+    }
+
+    public static JwtTokenHandler tokenHandler(boolean cacheEnabled, SignatureAlgorithm algorithm) {
+        return tokenHandler(cacheEnabled, algorithm, false);
+    }
+
+    public static JwtTokenHandler tokenHandler(boolean cacheEnabled, SignatureAlgorithm algorithm, boolean liveUserCheck) {
+        return tokenHandler(cacheEnabled, algorithm, liveUserCheck, "jjwt");
+    }
+
+    @SuppressWarnings("unchecked")
+    public static JwtTokenHandler tokenHandler(boolean cacheEnabled, SignatureAlgorithm algorithm, boolean liveUserCheck,
+            String verifier) {
+        // Asymmetric algorithms get a generated key pair, same as when no keys are configured
+        JwtSignatureProperties signatureProperties = new JwtSignatureProperties();
+        signatureProperties.setAlgorithm(algorithm);
+
+        JwtKeySet jwtKeySet = new JwtKeySet();
+        ReflectionTestUtils.setField(jwtKeySet, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtKeySet, "signatureProperties", signatureProperties);
+        ReflectionTestUtils.setField(jwtKeySet, "resourceLoader", new DefaultResourceLoader());
+        ReflectionTestUtils.invokeMethod(jwtKeySet, "init");
+
+        // System time on every call, the same as 'jwt.clock.tickInterval: 0'
+        TokenClock clock = System::currentTimeMillis;
+
+        VerifiedTokenCache verifiedTokenCache = new VerifiedTokenCache();
+        ReflectionTestUtils.setField(verifiedTokenCache, "clock", clock);
+        ReflectionTestUtils.setField(verifiedTokenCache, "enabled", cacheEnabled);
+        ReflectionTestUtils.setField(verifiedTokenCache, "maxEntries", 10000);
+        ReflectionTestUtils.setField(verifiedTokenCache, "maxRejectedEntries", 10000);
+        ReflectionTestUtils.setField(verifiedTokenCache, "rejectedTtl", 60000L);
+
+        // Nothing revoked, which is the common case
+        TokenRevocationList tokenRevocationList = new TokenRevocationList();
+        ReflectionTestUtils.setField(tokenRevocationList, "expectedTokens", 10000);
+        ReflectionTestUtils.setField(tokenRevocationList, "stateStore", new InMemoryAuthenticationStateStore());
+        ReflectionTestUtils.setField(tokenRevocationList, "clock", clock);
+        ReflectionTestUtils.setField(tokenRevocationList, "allowedClockSkew", 30L);
+        tokenRevocationList.load();
+
+        // Fixture User is already known (and enabled, with the same version as in tokens), so DB is never queried
+        UserStateRegistry userStateRegistry = new UserStateRegistry();
+        ReflectionTestUtils.setField(userStateRegistry, "enabled", liveUserCheck);
+        Map<Long, Long> userStates = (Map<Long, Long>) ReflectionTestUtils.getField(userStateRegistry, "states");
+        userStates.put(USER_ID, USER_VERSION << 1 | 1);
+
+        JwtTokenHandler tokenHandler = new JwtTokenHandler();
+        ReflectionTestUtils.setField(tokenHandler, "maxTokenLength", 4096);
+        ReflectionTestUtils.setField(tokenHandler, "expiration", EXPIRATION);
+        ReflectionTestUtils.setField(tokenHandler, "userAuthoritiesClaimKey", USER_AUTHORITIES_CLAIM);
+        // Real roles are encoded as bitmask, synthetic authorities fall back to authority list
+        ReflectionTestUtils.setField(tokenHandler, "compactAuthorities", true);
+        ReflectionTestUtils.setField(tokenHandler, "userIdClaimKey", USER_ID_CLAIM);
+        ReflectionTestUtils.setField(tokenHandler, "userVersionClaimKey", USER_VERSION_CLAIM);
+        ReflectionTestUtils.setField(tokenHandler, "appName", APP_NAME);
+        ReflectionTestUtils.setField(tokenHandler, "verifier", verifier);
+        ReflectionTestUtils.setField(tokenHandler, "allowedClockSkew", 30L);
+        ReflectionTestUtils.setField(tokenHandler, "clock", clock);
+        ReflectionTestUtils.setField(tokenHandler, "verifiedTokenCache", verifiedTokenCache);
+        ReflectionTestUtils.setField(tokenHandler, "jwtKeySet", jwtKeySet);
+        ReflectionTestUtils.setField(tokenHandler, "tokenRevocationList", tokenRevocationList);
+        ReflectionTestUtils.setField(tokenHandler, "authenticationMetrics", new AuthenticationMetrics());
+        ReflectionTestUtils.setField(tokenHandler, "userStateRegistry", userStateRegistry);
+        tokenHandler.init();
+
+        return tokenHandler;
+    }
+
+    public static AuthenticatedUser authenticatedUser(int authorityCount, String password) {
+        return new AuthenticatedUser(USER_ID, "user", password, "user@gmail.com", grantedAuthorities(authorityCount), true,
+                USER_VERSION);
+    }
+
+    public static Set<GrantedAuthority> grantedAuthorities(int authorityCount) {
+        // Real roles first, the rest are synthetic ones simulating a user with many fine-grained authorities
+        Set<GrantedAuthority> authorities = new HashSet<>();
+        for (String name : authorityNames(authorityCount)) {
+            authorities.add(new SimpleGrantedAuthority(name));
+        }
+        return authorities;
+    }
+
+    public static List<String> authorityNames(int authorityCount) {
+        List<String> names = new ArrayList<>(authorityCount);
+        Role[] roles = Role.values();
+        for (int i = 0; i < authorityCount; i++) {
+            names.add(i < roles.length ? roles[i].name() : "ROLE_PERMISSION_" + i);
+        }
+        return names;
+    }
+
+    public static User user(int authorityCount) {
+        // Authority entity can only hold known roles, so they are repeated to get the wanted collection size
+        Set<Authority> authorities = new HashSet<>();
+        Role[] roles = Role.values();
+        for (int i = 0; i < authorityCount; i++) {
+            authorities.add(new Authority(1000L + i, roles[i % roles.length]));
+        }
+
+        User user = new User("user", "password", "user@gmail.com", true, authorities);
+        user.setId(1000L);
+        return user;
+    }
+}
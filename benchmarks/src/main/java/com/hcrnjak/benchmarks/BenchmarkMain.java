@@ -0,0 +1,23 @@
+package com.hcrnjak.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.openjdk.jmh.Main;
+
+public class BenchmarkMain {
+
+    public static void main(String[] args) throws Exception {
+        // Results are always written as JSON (unless told otherwise) so they can be compared between releases
+        List<String> jmhArgs = new ArrayList<>(Arrays.asList(args));
+        if (!jmhArgs.contains("-rf")) {
+            jmhArgs.addAll(Arrays.asList("-rf", "json"));
+        }
+        if (!jmhArgs.contains("-rff")) {
+            jmhArgs.addAll(Arrays.asList("-rff", "jmh-result.json"));
+        }
+
+        Main.main(jmhArgs.toArray(new String[jmhArgs.size()]));
+    }
+}
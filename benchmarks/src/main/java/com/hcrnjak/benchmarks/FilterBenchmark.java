@@ -0,0 +1,94 @@
+package com.hcrnjak.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.hcrnjak.config.security.jwt.JwtAuthenticationResolver;
+import com.hcrnjak.config.security.jwt.JwtAuthenticationTokenFilter;
+import com.hcrnjak.config.security.jwt.JwtTokenHandler;
+import com.hcrnjak.config.security.metrics.AuthenticationMetrics;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+
+/**
+ * Full JwtAuthenticationTokenFilter pass for a request carrying a valid token, up to the point where the request is
+ * handed down the filter chain with populated SecurityContext
+ **/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilterBenchmark {
+
+    @Param({"1", "50"})
+    private int authorities;
+
+    @Param({"false", "true"})
+    private boolean cache;
+
+    @Param({"false", "true"})
+    private boolean liveUserCheck;
+
+    private JwtAuthenticationTokenFilter filter;
+    private String token;
+
+    @Setup
+    public void setup() {
+        JwtTokenHandler tokenHandler = BenchmarkFixtures.tokenHandler(cache, SignatureAlgorithm.HS256, liveUserCheck);
+        token = tokenHandler.generateToken(BenchmarkFixtures.authenticatedUser(authorities, null));
+
+        filter = new JwtAuthenticationTokenFilter();
+        ReflectionTestUtils.setField(filter, "tokenHeader", BenchmarkFixtures.TOKEN_HEADER);
+        JwtAuthenticationResolver resolver = new JwtAuthenticationResolver();
+        ReflectionTestUtils.setField(resolver, "jwtTokenHandler", tokenHandler);
+        ReflectionTestUtils.setField(resolver, "authenticationMetrics", new AuthenticationMetrics());
+        ReflectionTestUtils.setField(filter, "jwtAuthenticationResolver", resolver);
+    }
+
+    @Benchmark
+    public Object doFilter() throws Exception {
+        // Filter runs once per request, so each invocation needs a fresh request
+        MockHttpServletRequest request = newRequest();
+
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    /**
+     * Baseline : mock request, response and chain alone. Run with '-prof gc' and subtract its gc.alloc.rate.norm from
+     * doFilter's to get bytes allocated by the filter per request.
+     **/
+    @Benchmark
+    public Object mockRequest() {
+        MockHttpServletRequest request = newRequest();
+        return new Object[] {request, new MockHttpServletResponse(), new MockFilterChain()};
+    }
+
+    private MockHttpServletRequest newRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/authenticated");
+        request.addHeader(BenchmarkFixtures.TOKEN_HEADER, token);
+        return request;
+    }
+}
@@ -0,0 +1,81 @@
+package com.hcrnjak.benchmarks;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.hcrnjak.config.security.authentication.AdaptiveBCryptPasswordEncoder;
+import com.hcrnjak.config.security.authentication.AuthenticatedUser;
+import com.hcrnjak.config.security.authentication.AuthenticationInfoRepository;
+import com.hcrnjak.config.security.jwt.JwtTokenHandler;
+import com.hcrnjak.domain.AuthenticationService;
+import com.hcrnjak.model.view.AuthenticationRequest;
+
+/**
+ * Latency of '/auth' request handling : username/password check (BCrypt, same setup as SecurityConfig) followed by
+ * token generation. User lookup is served from memory, so DB access is not included, and the check runs on the calling
+ * thread instead of login executor.
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoginBenchmark {
+
+    private AuthenticationService authenticationService;
+    private JwtTokenHandler tokenHandler;
+    private AuthenticationRequest authenticationRequest;
+
+    @Setup
+    public void setup() {
+        // Default strength and already encoded with it, so passwords are never re-hashed
+        AdaptiveBCryptPasswordEncoder passwordEncoder = AdaptiveBCryptPasswordEncoder.withStrength(10);
+        AuthenticatedUser user = BenchmarkFixtures.authenticatedUser(2, passwordEncoder.encode("password"));
+
+        AuthenticationInfoRepository authenticationInfoRepository = new AuthenticationInfoRepository() {
+            @Override
+            public AuthenticatedUser loadUserByUsername(String username) {
+                return user;
+            }
+        };
+
+        DaoAuthenticationProvider authenticationProvider = new DaoAuthenticationProvider();
+        authenticationProvider.setUserDetailsService(authenticationInfoRepository);
+        authenticationProvider.setPasswordEncoder(passwordEncoder);
+
+        authenticationService = new AuthenticationService();
+        ReflectionTestUtils.setField(authenticationService, "authenticationManager",
+                new ProviderManager(Collections.singletonList(authenticationProvider)));
+        ReflectionTestUtils.setField(authenticationService, "passwordEncoder", passwordEncoder);
+
+        tokenHandler = BenchmarkFixtures.tokenHandler(false);
+        authenticationRequest = new AuthenticationRequest("user", "password");
+    }
+
+    @Benchmark
+    public String login() {
+        try {
+            // Same steps as UserAuthenticationController
+            AuthenticatedUser authenticatedUser = authenticationService.authenticateUser(authenticationRequest);
+            return tokenHandler.generateToken(authenticatedUser);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
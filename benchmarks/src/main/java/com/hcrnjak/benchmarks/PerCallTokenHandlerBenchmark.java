@@ -0,0 +1,115 @@
+package com.hcrnjak.benchmarks;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import com.hcrnjak.config.security.authentication.AuthenticatedUser;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+
+/**
+ * Baseline for TokenHandlerBenchmark : the original JwtTokenHandler implementation which builds a new parser/builder and
+ * re-derives the key on every call, and parses the token three times per authenticated request
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PerCallTokenHandlerBenchmark {
+
+    @Param({"1", "50"})
+    private int authorities;
+
+    private AuthenticatedUser user;
+    private String token;
+
+    @Setup
+    public void setup() {
+        user = BenchmarkFixtures.authenticatedUser(authorities, null);
+        token = generateToken(user);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return generateToken(user);
+    }
+
+    @Benchmark
+    public AuthenticatedUser verifyToken() {
+        // Filter first checked the token and then parsed it (which checked it once more)
+        return isTokenValid(token) ? parseToken(token) : null;
+    }
+
+    private static String generateToken(AuthenticatedUser user) {
+        Map<String, Object> privateClaims = new HashMap<>();
+        privateClaims.put(BenchmarkFixtures.USER_ID_CLAIM, user.getId());
+        privateClaims.put(BenchmarkFixtures.USER_AUTHORITIES_CLAIM, user.getAuthorities());
+
+        return Jwts.builder()
+                .setClaims(privateClaims)
+                .setId(UUID.randomUUID().toString())
+                .setIssuer(BenchmarkFixtures.APP_NAME)
+                .setAudience(BenchmarkFixtures.APP_NAME)
+                .setSubject(user.getUsername())
+                .setIssuedAt(new Date())
+                .setNotBefore(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + BenchmarkFixtures.EXPIRATION * 1000))
+                .signWith(SignatureAlgorithm.HS256, BenchmarkFixtures.SECRET)
+                .compact();
+    }
+
+    private static boolean isTokenValid(String token) {
+        try {
+            Jws<Claims> jwt = Jwts.parser()
+                    .setSigningKey(BenchmarkFixtures.SECRET)
+                    .requireAudience(BenchmarkFixtures.APP_NAME)
+                    .parseClaimsJws(token);
+
+            return jwt.getBody().getNotBefore().before(new Date()) && jwt.getBody().getExpiration().after(new Date());
+        } catch (Exception ex) {
+            return false;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static AuthenticatedUser parseToken(String token) {
+        if (!isTokenValid(token)) {
+            throw new IllegalArgumentException("JWT not valid : " + token);
+        }
+
+        Claims claims = Jwts.parser().setSigningKey(BenchmarkFixtures.SECRET).parseClaimsJws(token).getBody();
+
+        Set<GrantedAuthority> grantedAuthorities = (Set<GrantedAuthority>) ((List) claims.get(BenchmarkFixtures.USER_AUTHORITIES_CLAIM)).stream()
+                .map(elem -> ((Map) elem).get("authority"))
+                .map(authority -> new SimpleGrantedAuthority((String) authority))
+                .collect(Collectors.toSet());
+
+        return new AuthenticatedUser(Long.valueOf((Integer) claims.get(BenchmarkFixtures.USER_ID_CLAIM)), claims.getSubject(),
+                null, null, grantedAuthorities, true);
+    }
+}
@@ -0,0 +1,93 @@
+package com.hcrnjak.benchmarks;
+
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.impl.crypto.MacProvider;
+import io.jsonwebtoken.impl.crypto.RsaProvider;
+
+/**
+ * Cost of signing and verifying the same claims with different JWS algorithms (keys and parser are pre-built)
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SignatureAlgorithmBenchmark {
+
+    @Param({"HS256", "HS512", "RS256", "ES256"})
+    private SignatureAlgorithm algorithm;
+
+    @Param({"1", "50"})
+    private int authorities;
+
+    private Map<String, Object> claims;
+    private Key signingKey;
+    private JwtParser parser;
+    private String token;
+
+    @Setup
+    public void setup() throws Exception {
+        Key verificationKey;
+        if (algorithm.isHmac()) {
+            signingKey = verificationKey = MacProvider.generateKey(algorithm);
+        } else {
+            KeyPair keyPair = algorithm.isRsa() ? RsaProvider.generateKeyPair(2048) : generateEllipticCurveKeyPair();
+            signingKey = keyPair.getPrivate();
+            verificationKey = keyPair.getPublic();
+        }
+        parser = Jwts.parser().setSigningKey(verificationKey);
+
+        long now = System.currentTimeMillis() / 1000;
+        claims = new HashMap<>();
+        claims.put(BenchmarkFixtures.USER_ID_CLAIM, 1000L);
+        claims.put(BenchmarkFixtures.USER_AUTHORITIES_CLAIM, BenchmarkFixtures.grantedAuthorities(authorities));
+        claims.put(Claims.AUDIENCE, BenchmarkFixtures.APP_NAME);
+        claims.put(Claims.SUBJECT, "user");
+        claims.put(Claims.NOT_BEFORE, now);
+        claims.put(Claims.EXPIRATION, now + BenchmarkFixtures.EXPIRATION);
+
+        token = sign();
+    }
+
+    private static KeyPair generateEllipticCurveKeyPair() throws Exception {
+        // jjwt's EllipticCurveProvider requires BouncyCastle, JDK provider supports P-256 out of the box
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        return generator.generateKeyPair();
+    }
+
+    @Benchmark
+    public String sign() {
+        return Jwts.builder().setClaims(claims).signWith(algorithm, signingKey).compact();
+    }
+
+    @Benchmark
+    public Jws<Claims> verify() {
+        return parser.parseClaimsJws(token);
+    }
+}
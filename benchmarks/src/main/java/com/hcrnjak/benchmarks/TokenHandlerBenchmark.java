@@ -0,0 +1,78 @@
+package com.hcrnjak.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.hcrnjak.config.security.authentication.AuthenticatedUser;
+import com.hcrnjak.config.security.jwt.JwtTokenHandler;
+import com.hcrnjak.config.security.jwt.TokenVerificationResult;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+
+/**
+ * Token generation and verification as done by JwtTokenHandler on login and on each authenticated request, and
+ * rejection of junk and tampered tokens
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenHandlerBenchmark {
+
+    @Param({"HS256", "RS256", "ES256"})
+    private SignatureAlgorithm algorithm;
+
+    @Param({"1", "50"})
+    private int authorities;
+
+    @Param({"false", "true"})
+    private boolean cache;
+
+    private JwtTokenHandler tokenHandler;
+    private AuthenticatedUser user;
+    private String token;
+    private String tamperedToken;
+
+    @Setup
+    public void setup() {
+        tokenHandler = BenchmarkFixtures.tokenHandler(cache, algorithm);
+        user = BenchmarkFixtures.authenticatedUser(authorities, null);
+        token = tokenHandler.generateToken(user);
+        // Same length signature, so only its verification can tell it's wrong (last character may be only padding bits)
+        int position = token.length() - 2;
+        tamperedToken = token.substring(0, position) + (token.charAt(position) == 'A' ? 'B' : 'A') + token.substring(position + 1);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return tokenHandler.generateToken(user);
+    }
+
+    @Benchmark
+    public TokenVerificationResult verifyToken() {
+        return tokenHandler.verifyToken(token);
+    }
+
+    @Benchmark
+    public TokenVerificationResult rejectJunkToken() {
+        return tokenHandler.verifyToken("not-a-jwt-but-long-enough-to-look-like-one.!!");
+    }
+
+    @Benchmark
+    public TokenVerificationResult rejectTamperedToken() {
+        return tokenHandler.verifyToken(tamperedToken);
+    }
+}
@@ -0,0 +1,66 @@
+package com.hcrnjak.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.hcrnjak.config.security.jwt.JwtTokenHandler;
+import com.hcrnjak.config.security.jwt.TokenVerificationResult;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+
+/**
+ * HS256 token verification without cache, jjwt vs raw verifier ('jwt.verifier'). Both engines give the same results
+ * (VerifierCompatibilityTest), so only their speed is compared.
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VerifierBenchmark {
+
+    @Param({"jjwt", "raw"})
+    private String verifier;
+
+    @Param({"1", "50"})
+    private int authorities;
+
+    private JwtTokenHandler tokenHandler;
+    private String token;
+    private String tamperedToken;
+
+    @Setup
+    public void setup() {
+        tokenHandler = BenchmarkFixtures.tokenHandler(false, SignatureAlgorithm.HS256, false, verifier);
+        token = tokenHandler.generateToken(BenchmarkFixtures.authenticatedUser(authorities, null));
+        tamperedToken = tamper(token);
+    }
+
+    @Benchmark
+    public TokenVerificationResult verifyToken() {
+        return tokenHandler.verifyToken(token);
+    }
+
+    @Benchmark
+    public TokenVerificationResult rejectTamperedToken() {
+        return tokenHandler.verifyToken(tamperedToken);
+    }
+
+    // Same length signature, so only its verification can tell it's wrong (last character may be only padding bits)
+    private static String tamper(String token) {
+        int position = token.length() - 2;
+        return token.substring(0, position) + (token.charAt(position) == 'A' ? 'B' : 'A') + token.substring(position + 1);
+    }
+}
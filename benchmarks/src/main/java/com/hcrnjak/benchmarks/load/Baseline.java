@@ -0,0 +1,75 @@
+package com.hcrnjak.benchmarks.load;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Load test results stored as properties ('<scenario>.<metric>=<value>'), e.g. 'authenticated.p99=4.2'.
+ * Baselines are only comparable between runs on the same machine with the same options.
+ **/
+final class Baseline {
+
+    private Baseline() {
+    }
+
+    static Properties load(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream input = Files.newInputStream(file)) {
+            properties.load(input);
+        }
+        return properties;
+    }
+
+    static void store(Path file, List<ScenarioResult> results, String comment) throws IOException {
+        Properties properties = new Properties();
+        for (ScenarioResult result : results) {
+            for (Map.Entry<String, Double> metric : result.getMetrics().entrySet()) {
+                properties.setProperty(result.getName() + '.' + metric.getKey(),
+                        String.format(Locale.ROOT, "%.3f", metric.getValue()));
+            }
+        }
+
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        try (OutputStream output = Files.newOutputStream(file)) {
+            properties.store(output, comment);
+        }
+    }
+
+    // Lower throughput or higher latency than baseline by more than threshold (relative), one message per regression.
+    // Metric (or whole scenario) missing from baseline can't be checked, which is reported the same way : baseline has
+    // to be updated when scenarios or metrics are added
+    static List<String> regressions(Properties baseline, List<ScenarioResult> results, double threshold) {
+        List<String> regressions = new ArrayList<>();
+        for (ScenarioResult result : results) {
+            for (Map.Entry<String, Double> metric : result.getMetrics().entrySet()) {
+                String key = result.getName() + '.' + metric.getKey();
+                String expected = baseline.getProperty(key);
+                if (expected == null) {
+                    regressions.add(String.format("%s : %.3f, missing from baseline", key, metric.getValue()));
+                    continue;
+                }
+
+                double baselineValue = Double.parseDouble(expected);
+                double value = metric.getValue();
+                boolean higherIsBetter = "throughput".equals(metric.getKey());
+                boolean regressed = higherIsBetter
+                        ? value < baselineValue * (1 - threshold)
+                        : value > baselineValue * (1 + threshold);
+                if (regressed) {
+                    regressions.add(String.format("%s : %.3f, baseline %.3f (%+.1f%%)", key, value, baselineValue,
+                            (value / baselineValue - 1) * 100));
+                }
+            }
+        }
+        return regressions;
+    }
+}
@@ -0,0 +1,74 @@
+package com.hcrnjak.benchmarks.load;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Minimal HTTP client on top of HttpURLConnection, which keeps connections alive as long as response bodies are read
+ * to the end ('http.maxConnections' idle connections are kept per host).
+ **/
+final class LoadClient {
+
+    private final String baseUrl;
+    private final String tokenHeader;
+
+    LoadClient(String baseUrl, String tokenHeader) {
+        this.baseUrl = baseUrl;
+        this.tokenHeader = tokenHeader;
+    }
+
+    Response get(String path, String token) throws IOException {
+        return send("GET", path, token, null);
+    }
+
+    Response post(String path, String token, String json) throws IOException {
+        return send("POST", path, token, json);
+    }
+
+    private Response send(String method, String path, String token, String json) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+        connection.setRequestMethod(method);
+        if (token != null) {
+            connection.setRequestProperty(tokenHeader, token);
+        }
+        if (json != null) {
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", "application/json");
+            try (OutputStream output = connection.getOutputStream()) {
+                output.write(json.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        int status = connection.getResponseCode();
+        InputStream body = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+        return new Response(status, body != null ? read(body) : "");
+    }
+
+    private static String read(InputStream input) throws IOException {
+        try (InputStream body = input) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = body.read(buffer)) >= 0) {
+                bytes.write(buffer, 0, read);
+            }
+            return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    static final class Response {
+
+        final int status;
+        final String body;
+
+        private Response(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.hcrnjak.benchmarks.load;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hcrnjak.Application;
+
+/**
+ * End-to-end load test : boots the app with embedded H2, seeds Users (on top of data-h2.sql), then drives '/auth',
+ * '/authenticated' and '/admin' with concurrent clients, one scenario after another. Throughput and latency percentiles
+ * of each scenario are compared with a stored baseline, and the run fails (exit status 1) if any of them regressed by
+ * more than the threshold, is missing from the baseline (or there is no baseline) or too many requests failed. See
+ * LoadTestOptions for settings.
+ **/
+public class LoadTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    // Seeded Users share password of 'user' from data-h2.sql, so no BCrypt hashing is needed to seed them
+    private static final String PASSWORD = "user";
+    private static final String USERNAME_PREFIX = "load-user-";
+    private static final long FIRST_USER_ID = 1_000_000;
+    private static final int ADMIN_EVERY = 100;
+    private static final int BATCH_SIZE = 1000;
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        System.out.println("Load test " + options);
+
+        // Idle keep-alive connections kept by HttpURLConnection, one per client
+        System.setProperty("http.maxConnections", options.get("concurrency"));
+
+        List<ScenarioResult> results;
+        try (ConfigurableApplicationContext context = SpringApplication.run(Application.class, options.getAppArgs())) {
+            int users = options.getInt("users");
+            seedUsers(context.getBean(JdbcTemplate.class), users);
+
+            Environment environment = context.getEnvironment();
+            LoadClient client = new LoadClient("http://localhost:" + environment.getProperty("local.server.port"),
+                    environment.getProperty("jwt.header"));
+            results = runScenarios(client, "/" + environment.getProperty("jwt.route.authentication.path"), options, users);
+        }
+
+        System.out.println();
+        System.out.println(ScenarioResult.header());
+        for (ScenarioResult result : results) {
+            System.out.println(result);
+        }
+
+        boolean passed = check(results, options);
+        System.exit(passed ? 0 : 1);
+    }
+
+    private static void seedUsers(JdbcTemplate jdbcTemplate, int users) {
+        long start = System.currentTimeMillis();
+        String passwordHash = jdbcTemplate.queryForObject("SELECT PASSWORD FROM USERS WHERE USERNAME = ?", String.class, PASSWORD);
+
+        List<Object[]> userRows = new ArrayList<>(BATCH_SIZE);
+        List<Object[]> authorityRows = new ArrayList<>(BATCH_SIZE * 2);
+        for (int i = 0; i < users; i++) {
+            long id = FIRST_USER_ID + i;
+            userRows.add(new Object[] {id, USERNAME_PREFIX + i + "@example.com", true, passwordHash, USERNAME_PREFIX + i});
+            authorityRows.add(new Object[] {id * 2, "ROLE_USER", id});
+            if (i % ADMIN_EVERY == 0) {
+                authorityRows.add(new Object[] {id * 2 + 1, "ROLE_ADMIN", id});
+            }
+
+            if (userRows.size() == BATCH_SIZE || i == users - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO USERS (ID, EMAIL, ENABLED, PASSWORD, USERNAME, VERSION, TOKEN_VERSION, "
+                        + "UPDATED_AT) VALUES (?, ?, ?, ?, ?, 0, 0, 0)", userRows);
+                jdbcTemplate.batchUpdate("INSERT INTO AUTHORITIES (ID, ROLE, USER_ID) VALUES (?, ?, ?)", authorityRows);
+                userRows.clear();
+                authorityRows.clear();
+            }
+        }
+        System.out.println("Seeded " + users + " Users in " + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    private static List<ScenarioResult> runScenarios(LoadClient client, String authPath, LoadTestOptions options, int users)
+            throws IOException, InterruptedException {
+        // Tokens are issued in bulk by ADMIN from data-h2.sql, logging in each User would take BCrypt time per token
+        String adminToken = login(client, authPath, "admin", "admin");
+        int tokens = Math.min(options.getInt("tokens"), users);
+        List<String> userTokens = issueTokens(client, adminToken, tokens, 1);
+        List<String> adminTokens = issueTokens(client, adminToken, Math.max(1, Math.min(tokens, users / ADMIN_EVERY)),
+                ADMIN_EVERY);
+
+        List<ScenarioResult> results = new ArrayList<>();
+        for (String name : options.getList("scenarios")) {
+            Scenario scenario = scenario(name, authPath, users, userTokens, adminTokens);
+            System.out.println("Running '" + name + "' scenario");
+            results.add(scenario.run(client, options.getInt("concurrency"), options.getInt("warmup") * 1000L,
+                    options.getInt("duration") * 1000L));
+        }
+        return results;
+    }
+
+    private static Scenario scenario(String name, String authPath, int users, List<String> userTokens,
+            List<String> adminTokens) {
+        switch (name) {
+            case "auth":
+                return new Scenario(name, (client, random) -> client.post(authPath, null,
+                        credentials(USERNAME_PREFIX + random.nextInt(users), PASSWORD)).status == 200);
+            case "authenticated":
+                return new Scenario(name, (client, random) ->
+                        client.get("/authenticated", userTokens.get(random.nextInt(userTokens.size()))).status == 200);
+            case "admin":
+                return new Scenario(name, (client, random) ->
+                        client.get("/admin", adminTokens.get(random.nextInt(adminTokens.size()))).status == 200);
+            default:
+                throw new IllegalArgumentException("Unknown scenario '" + name + "', known scenarios : auth, authenticated, admin");
+        }
+    }
+
+    private static String login(LoadClient client, String authPath, String username, String password) throws IOException {
+        LoadClient.Response response = client.post(authPath, null, credentials(username, password));
+        if (response.status != 200) {
+            throw new IllegalStateException("Login of '" + username + "' failed with " + response.status);
+        }
+        return OBJECT_MAPPER.readTree(response.body).get("token").asText();
+    }
+
+    // Tokens of 'count' seeded Users, taking every 'step'-th one
+    private static List<String> issueTokens(LoadClient client, String adminToken, int count, int step) throws IOException {
+        List<String> tokens = new ArrayList<>(count);
+        List<String> usernames = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < count; i++) {
+            usernames.add(USERNAME_PREFIX + (long) i * step);
+            if (usernames.size() == BATCH_SIZE || i == count - 1) {
+                LoadClient.Response response = client.post("/admin/tokens/issue", adminToken,
+                        OBJECT_MAPPER.writeValueAsString(Collections.singletonMap("usernames", usernames)));
+                if (response.status != 200) {
+                    throw new IllegalStateException("Issuing tokens failed with " + response.status + " : " + response.body);
+                }
+                for (JsonNode issued : OBJECT_MAPPER.readTree(response.body)) {
+                    tokens.add(issued.get("token").asText());
+                }
+                usernames.clear();
+            }
+        }
+        return tokens;
+    }
+
+    private static String credentials(String username, String password) {
+        return "{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}";
+    }
+
+    private static boolean check(List<ScenarioResult> results, LoadTestOptions options) throws IOException {
+        boolean passed = true;
+        Baseline.store(Paths.get(options.get("result")), results, "Load test result " + options);
+
+        double maxErrorRate = options.getDouble("maxErrorRate");
+        for (ScenarioResult result : results) {
+            if (result.getErrorRate() > maxErrorRate) {
+                System.out.printf("FAILED : %d of %d '%s' requests failed%n", result.getErrors(), result.getRequests(),
+                        result.getName());
+                passed = false;
+            }
+        }
+
+        Path baselineFile = Paths.get(options.get("baseline"));
+        if (options.getBoolean("updateBaseline")) {
+            Baseline.store(baselineFile, results, "Load test baseline " + options);
+            System.out.println("Baseline written to " + baselineFile.toAbsolutePath());
+            return passed;
+        }
+        // Missing baseline (e.g. wrong path) must not turn the check into a silent pass
+        if (!Files.exists(baselineFile)) {
+            System.out.println("FAILED : no baseline at " + baselineFile.toAbsolutePath()
+                    + ", run with 'updateBaseline=true' to create it");
+            return false;
+        }
+
+        Properties baseline = Baseline.load(baselineFile);
+        List<String> regressions = Baseline.regressions(baseline, results, options.getDouble("threshold"));
+        for (String regression : regressions) {
+            System.out.println("REGRESSION " + regression);
+        }
+        if (regressions.isEmpty()) {
+            System.out.println("No regression against " + baselineFile.toAbsolutePath());
+        }
+        return passed && regressions.isEmpty();
+    }
+}
@@ -0,0 +1,94 @@
+package com.hcrnjak.benchmarks.load;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Load test settings, given as 'name=value' arguments (several may be passed in one argument, separated by spaces).
+ * Arguments starting with '--' are application properties, e.g. '--jwt.verifier=raw'.
+ **/
+final class LoadTestOptions {
+
+    private static final Map<String, String> DEFAULTS = new LinkedHashMap<>();
+
+    static {
+        // Seeded Users, every 100th one is also ADMIN
+        DEFAULTS.put("users", "100000");
+        // Distinct tokens used by '/authenticated' and '/admin' clients
+        DEFAULTS.put("tokens", "10000");
+        DEFAULTS.put("concurrency", "32");
+        // Per scenario, seconds
+        DEFAULTS.put("warmup", "10");
+        DEFAULTS.put("duration", "30");
+        DEFAULTS.put("scenarios", "auth,authenticated,admin");
+        // Allowed relative regression of throughput and latency percentiles, and allowed share of failed requests
+        DEFAULTS.put("threshold", "0.25");
+        DEFAULTS.put("maxErrorRate", "0.01");
+        DEFAULTS.put("baseline", "load-baseline.properties");
+        DEFAULTS.put("result", "target/load-result.properties");
+        // Store results of this run as the new baseline instead of comparing them with it
+        DEFAULTS.put("updateBaseline", "false");
+    }
+
+    // All Users share one IP, so login rate limit is off. Port is picked by the OS
+    private static final List<String> APP_DEFAULTS = Arrays.asList(
+            "--server.port=0", "--login.rateLimit.enabled=false", "--logging.level.root=WARN");
+
+    private final Map<String, String> values = new LinkedHashMap<>(DEFAULTS);
+    private final List<String> appArgs = new ArrayList<>(APP_DEFAULTS);
+
+    static LoadTestOptions parse(String[] args) {
+        LoadTestOptions options = new LoadTestOptions();
+        for (String arg : args) {
+            for (String option : arg.trim().split("\\s+")) {
+                if (option.isEmpty()) {
+                    continue;
+                }
+                if (option.startsWith("--")) {
+                    options.appArgs.add(option);
+                    continue;
+                }
+
+                int separator = option.indexOf('=');
+                if (separator < 0 || !DEFAULTS.containsKey(option.substring(0, separator))) {
+                    throw new IllegalArgumentException("Unknown load test option '" + option + "', known options : "
+                            + DEFAULTS.keySet());
+                }
+                options.values.put(option.substring(0, separator), option.substring(separator + 1));
+            }
+        }
+        return options;
+    }
+
+    String get(String name) {
+        return values.get(name);
+    }
+
+    int getInt(String name) {
+        return Integer.parseInt(values.get(name));
+    }
+
+    double getDouble(String name) {
+        return Double.parseDouble(values.get(name));
+    }
+
+    boolean getBoolean(String name) {
+        return Boolean.parseBoolean(values.get(name));
+    }
+
+    List<String> getList(String name) {
+        return Arrays.asList(values.get(name).split(","));
+    }
+
+    String[] getAppArgs() {
+        return appArgs.toArray(new String[appArgs.size()]);
+    }
+
+    @Override
+    public String toString() {
+        return values + " " + appArgs;
+    }
+}
@@ -0,0 +1,100 @@
+package com.hcrnjak.benchmarks.load;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * One kind of request sent over and over by concurrent clients for a fixed time. Requests started during warmup
+ * aren't measured.
+ **/
+final class Scenario {
+
+    @FunctionalInterface
+    interface Request {
+
+        // Returns false if the response isn't the expected one
+        boolean send(LoadClient client, ThreadLocalRandom random) throws IOException;
+    }
+
+    private final String name;
+    private final Request request;
+
+    Scenario(String name, Request request) {
+        this.name = name;
+        this.request = request;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    ScenarioResult run(LoadClient client, int concurrency, long warmupMillis, long durationMillis) throws InterruptedException {
+        long measureFrom = System.nanoTime() + warmupMillis * 1_000_000;
+        long measureTo = measureFrom + durationMillis * 1_000_000;
+
+        List<Worker> workers = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            Worker worker = new Worker(client, measureFrom, measureTo);
+            worker.setName("load-" + name + "-" + i);
+            workers.add(worker);
+            worker.start();
+        }
+
+        // Latencies of all workers are merged, so percentiles are exact
+        long[] latencies = new long[0];
+        long errors = 0;
+        for (Worker worker : workers) {
+            worker.join();
+            int offset = latencies.length;
+            latencies = Arrays.copyOf(latencies, offset + worker.count);
+            System.arraycopy(worker.latencies, 0, latencies, offset, worker.count);
+            errors += worker.errors;
+        }
+        return new ScenarioResult(name, latencies, errors, durationMillis);
+    }
+
+    private final class Worker extends Thread {
+
+        private final LoadClient client;
+        private final long measureFrom;
+        private final long measureTo;
+
+        private long[] latencies = new long[1024];
+        private int count;
+        private long errors;
+
+        private Worker(LoadClient client, long measureFrom, long measureTo) {
+            this.client = client;
+            this.measureFrom = measureFrom;
+            this.measureTo = measureTo;
+        }
+
+        @Override
+        public void run() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long start;
+            while ((start = System.nanoTime()) < measureTo) {
+                boolean succeeded;
+                try {
+                    succeeded = request.send(client, random);
+                } catch (IOException ex) {
+                    succeeded = false;
+                }
+                long latency = System.nanoTime() - start;
+
+                if (start >= measureFrom) {
+                    if (count == latencies.length) {
+                        latencies = Arrays.copyOf(latencies, count * 2);
+                    }
+                    latencies[count++] = latency;
+                    if (!succeeded) {
+                        errors++;
+                    }
+                }
+            }
+        }
+    }
+}
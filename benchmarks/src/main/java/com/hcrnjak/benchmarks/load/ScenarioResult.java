@@ -0,0 +1,73 @@
+package com.hcrnjak.benchmarks.load;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Measured requests of one scenario : throughput, latency percentiles and failed requests.
+ **/
+final class ScenarioResult {
+
+    private final String name;
+    private final long requests;
+    private final long errors;
+    private final double throughput;
+    private final double p50;
+    private final double p99;
+
+    ScenarioResult(String name, long[] latencies, long errors, long durationMillis) {
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+
+        this.name = name;
+        this.requests = sorted.length;
+        this.errors = errors;
+        this.throughput = sorted.length * 1000.0 / durationMillis;
+        this.p50 = percentile(sorted, 0.50);
+        this.p99 = percentile(sorted, 0.99);
+    }
+
+    // Nearest-rank percentile in milliseconds
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile * sorted.length);
+        return sorted[Math.max(rank, 1) - 1] / 1_000_000.0;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    long getRequests() {
+        return requests;
+    }
+
+    long getErrors() {
+        return errors;
+    }
+
+    double getErrorRate() {
+        return requests == 0 ? 1 : (double) errors / requests;
+    }
+
+    // Metrics compared with baseline, by key suffix. Throughput is in requests per second, latencies in milliseconds
+    Map<String, Double> getMetrics() {
+        Map<String, Double> metrics = new LinkedHashMap<>();
+        metrics.put("throughput", throughput);
+        metrics.put("p50", p50);
+        metrics.put("p99", p99);
+        return metrics;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-16s %10d %8d %12.1f %10.2f %10.2f", name, requests, errors, throughput, p50, p99);
+    }
+
+    static String header() {
+        return String.format("%-16s %10s %8s %12s %10s %10s", "Scenario", "Requests", "Errors", "Req/s", "p50 (ms)", "p99 (ms)");
+    }
+}
@@ -2,8 +2,10 @@ package com.hcrnjak;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication // same as @Configuration @EnableAutoConfiguration @ComponentScan
+@EnableScheduling
 public class Application {
 
     public static void main(String[] args) throws Exception {
@@ -0,0 +1,75 @@
+package com.hcrnjak.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncListenableTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import com.hcrnjak.config.security.authentication.AdaptiveBCryptPasswordEncoder;
+import com.hcrnjak.config.security.metrics.AuthenticationMetrics;
+
+@Configuration
+public class AuthenticationConfig {
+
+    @Autowired
+    private AuthenticationMetrics authenticationMetrics;
+
+    @Value("${login.bcrypt.strength}")
+    private int bcryptStrength;
+
+    @Value("${login.bcrypt.minStrength}")
+    private int bcryptMinStrength;
+
+    @Value("${login.bcrypt.targetTime}")
+    private long bcryptTargetTime;
+
+    @Value("${login.executor.threads}")
+    private int loginThreads;
+
+    @Value("${login.executor.queueCapacity}")
+    private int loginQueueCapacity;
+
+    @Value("${virtualThreads.enabled}")
+    private boolean virtualThreads;
+
+    @Bean
+    public AdaptiveBCryptPasswordEncoder passwordEncoder() {
+        AdaptiveBCryptPasswordEncoder passwordEncoder = bcryptStrength > 0
+                ? AdaptiveBCryptPasswordEncoder.withStrength(bcryptStrength)
+                : AdaptiveBCryptPasswordEncoder.tunedTo(bcryptTargetTime, bcryptMinStrength);
+        passwordEncoder.setMatchLatency(authenticationMetrics.getPasswordCheck());
+        if (virtualThreads) {
+            // Login threads are no longer limited, hashing still is
+            passwordEncoder.setConcurrencyLimit(loginThreads());
+        }
+        return passwordEncoder;
+    }
+
+    /**
+     * Credential checks (BCrypt) are CPU bound, so they run on a small pool sized to the CPU count instead of on Tomcat's
+     * request threads. During login storms requests queue here (and get rejected once the queue is full) while request
+     * threads remain available for JWT authenticated calls.
+     * With virtual threads, every login gets its own thread so User lookups don't wait for each other, and only BCrypt
+     * is limited to the pool size (see {@link #passwordEncoder()}). Logins over pool size + queue capacity are rejected.
+     **/
+    @Bean
+    public AsyncListenableTaskExecutor loginExecutor() {
+        if (virtualThreads) {
+            return new VirtualThreadTaskExecutor("login-", loginThreads() + loginQueueCapacity);
+        }
+
+        int threads = loginThreads();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(loginQueueCapacity);
+        executor.setThreadNamePrefix("login-");
+        return executor;
+    }
+
+    private int loginThreads() {
+        return loginThreads > 0 ? loginThreads : Runtime.getRuntime().availableProcessors();
+    }
+}
@@ -0,0 +1,49 @@
+package com.hcrnjak.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.access.AccessDecisionManager;
+import org.springframework.security.access.AccessDecisionVoter;
+import org.springframework.security.access.expression.method.ExpressionBasedAnnotationAttributeFactory;
+import org.springframework.security.access.expression.method.ExpressionBasedPreInvocationAdvice;
+import org.springframework.security.access.method.MethodSecurityMetadataSource;
+import org.springframework.security.access.prepost.PrePostAnnotationSecurityMetadataSource;
+import org.springframework.security.access.prepost.PreInvocationAuthorizationAdviceVoter;
+import org.springframework.security.access.vote.AffirmativeBased;
+import org.springframework.security.access.vote.AuthenticatedVoter;
+import org.springframework.security.access.vote.RoleVoter;
+import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
+import org.springframework.security.config.annotation.method.configuration.GlobalMethodSecurityConfiguration;
+
+import com.hcrnjak.config.security.authorization.CompiledPreInvocationAdvice;
+import com.hcrnjak.config.security.authorization.CompilingAttributeFactory;
+
+@Configuration
+@EnableGlobalMethodSecurity(prePostEnabled = true)
+public class MethodSecurityConfig extends GlobalMethodSecurityConfiguration {
+
+    // Consulted before the default @PreAuthorize metadata source, so annotated methods get compiled attributes
+    @Override
+    protected MethodSecurityMetadataSource customMethodSecurityMetadataSource() {
+        return new PrePostAnnotationSecurityMetadataSource(
+                new CompilingAttributeFactory(new ExpressionBasedAnnotationAttributeFactory(getExpressionHandler())));
+    }
+
+    /**
+     * Same voters as the default configuration, except that @PreAuthorize role checks are compiled to bit operations
+     * (see {@link CompiledPreInvocationAdvice}), SpEL is only evaluated for expressions that can't be compiled.
+     **/
+    @Override
+    protected AccessDecisionManager accessDecisionManager() {
+        ExpressionBasedPreInvocationAdvice expressionAdvice = new ExpressionBasedPreInvocationAdvice();
+        expressionAdvice.setExpressionHandler(getExpressionHandler());
+
+        List<AccessDecisionVoter<?>> voters = new ArrayList<>();
+        voters.add(new PreInvocationAuthorizationAdviceVoter(new CompiledPreInvocationAdvice(expressionAdvice)));
+        voters.add(new RoleVoter());
+        voters.add(new AuthenticatedVoter());
+        return new AffirmativeBased(voters);
+    }
+}
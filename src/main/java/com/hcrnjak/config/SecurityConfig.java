@@ -1,25 +1,24 @@
 package com.hcrnjak.config;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
-import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.web.authentication.logout.LogoutFilter;
 
 import com.hcrnjak.config.security.jwt.JwtAuthenticationEntryPoint;
+import com.hcrnjak.config.security.authentication.AdaptiveBCryptPasswordEncoder;
 import com.hcrnjak.config.security.authentication.AuthenticationInfoRepository;
 import com.hcrnjak.config.security.jwt.JwtAuthenticationTokenFilter;
 
 @Configuration
 @EnableWebSecurity
-@EnableGlobalMethodSecurity(prePostEnabled = true)
 public class SecurityConfig extends WebSecurityConfigurerAdapter {
 
     @Autowired
@@ -28,6 +27,15 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
     @Autowired
     private AuthenticationInfoRepository authenticationInfoRepository;
 
+    @Autowired
+    private AdaptiveBCryptPasswordEncoder passwordEncoder;
+
+    @Value("${metrics.path}")
+    private String metricsPath;
+
+    @Value("${metrics.public}")
+    private boolean metricsPublic;
+
     @Bean
     public JwtAuthenticationTokenFilter authenticationTokenFilterBean() throws Exception {
         return new JwtAuthenticationTokenFilter();
@@ -37,7 +45,7 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
     public void configureAuthentication(AuthenticationManagerBuilder authenticationManagerBuilder) throws Exception {
         authenticationManagerBuilder
                 .userDetailsService(authenticationInfoRepository)
-                .passwordEncoder(new BCryptPasswordEncoder());
+                .passwordEncoder(passwordEncoder);
     }
 
     @Override
@@ -57,6 +65,8 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
                         "/**/*.js"
                 ).permitAll()
                 .antMatchers("/auth/**").permitAll()
+                .antMatchers(HttpMethod.GET, "/.well-known/jwks.json").permitAll()
+                .antMatchers(HttpMethod.GET, metricsPath).access(metricsPublic ? "permitAll" : "hasRole('ADMIN')")
                 .antMatchers("/h2/**").permitAll()
                 .anyRequest().authenticated();
 
@@ -0,0 +1,40 @@
+package com.hcrnjak.config;
+
+import java.util.concurrent.ThreadFactory;
+
+import org.apache.coyote.AbstractProtocol;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.embedded.EmbeddedServletContainerCustomizer;
+import org.springframework.boot.context.embedded.tomcat.TomcatEmbeddedServletContainerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ServerConfig {
+
+    private final Logger logger = LogManager.getLogger(ServerConfig.class);
+
+    @Value("${virtualThreads.enabled}")
+    private boolean virtualThreads;
+
+    /**
+     * With virtual threads enabled every request gets its own virtual thread instead of one from Tomcat's fixed pool,
+     * so requests blocked on JDBC don't hold platform threads and 'server.tomcat.maxThreads' no longer caps how many
+     * requests are processed at once ('server.tomcat.maxConnections' still does).
+     **/
+    @Bean
+    public EmbeddedServletContainerCustomizer requestThreadsCustomizer() {
+        return container -> {
+            if (!virtualThreads || !(container instanceof TomcatEmbeddedServletContainerFactory)) {
+                return;
+            }
+
+            ThreadFactory threadFactory = VirtualThreads.factory("http-virtual-");
+            ((TomcatEmbeddedServletContainerFactory) container).addConnectorCustomizers(connector ->
+                    ((AbstractProtocol<?>) connector.getProtocolHandler()).setExecutor(task -> threadFactory.newThread(task).start()));
+            logger.info("Requests are handled on virtual threads");
+        };
+    }
+}
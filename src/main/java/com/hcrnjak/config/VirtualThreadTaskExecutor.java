@@ -0,0 +1,71 @@
+package com.hcrnjak.config;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+
+import org.springframework.core.task.AsyncListenableTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.ListenableFutureTask;
+
+/**
+ * Runs every task on its own virtual thread. Number of tasks in progress is limited, tasks over the limit are rejected
+ * with TaskRejectedException the same way ThreadPoolTaskExecutor rejects them when its queue is full.
+ **/
+public class VirtualThreadTaskExecutor implements AsyncListenableTaskExecutor {
+
+    private final ThreadFactory threadFactory;
+    private final Semaphore tasks;
+
+    public VirtualThreadTaskExecutor(String threadNamePrefix, int maxTasks) {
+        this.threadFactory = VirtualThreads.factory(threadNamePrefix);
+        this.tasks = new Semaphore(maxTasks);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (!tasks.tryAcquire()) {
+            throw new TaskRejectedException("Executor limit of concurrent tasks reached, " + task + " rejected");
+        }
+
+        threadFactory.newThread(() -> {
+            try {
+                task.run();
+            } finally {
+                tasks.release();
+            }
+        }).start();
+    }
+
+    @Override
+    public void execute(Runnable task, long startTimeout) {
+        // Tasks start right away, there's no queue to time out in
+        execute(task);
+    }
+
+    @Override
+    public Future<?> submit(Runnable task) {
+        return submitListenable(task);
+    }
+
+    @Override
+    public <T> Future<T> submit(Callable<T> task) {
+        return submitListenable(task);
+    }
+
+    @Override
+    public ListenableFuture<?> submitListenable(Runnable task) {
+        ListenableFutureTask<Object> future = new ListenableFutureTask<>(task, null);
+        execute(future);
+        return future;
+    }
+
+    @Override
+    public <T> ListenableFuture<T> submitListenable(Callable<T> task) {
+        ListenableFutureTask<T> future = new ListenableFutureTask<>(task);
+        execute(future);
+        return future;
+    }
+}
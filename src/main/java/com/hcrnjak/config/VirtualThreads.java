@@ -0,0 +1,28 @@
+package com.hcrnjak.config;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Access to virtual threads (Java 21+) while the code is still compiled for Java 8, where Thread.ofVirtual() doesn't
+ * exist. Fails on startup when virtual threads are enabled on older JVM.
+ **/
+final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    // Factory of unstarted virtual threads named prefix + sequence number
+    static ThreadFactory factory(String prefix) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Method name = builderClass.getMethod("name", String.class, long.class);
+            builder = name.invoke(builder, prefix, 0L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException("Virtual threads require Java 21 or newer, running on "
+                    + System.getProperty("java.version"), ex);
+        }
+    }
+}
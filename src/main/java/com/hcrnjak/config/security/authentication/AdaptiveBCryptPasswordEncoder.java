@@ -0,0 +1,121 @@
+package com.hcrnjak.config.security.authentication;
+
+import java.util.concurrent.Semaphore;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.hcrnjak.config.security.metrics.LatencyHistogram;
+
+/**
+ * BCrypt encoder whose strength (log2 of rounds) is either fixed or tuned on startup, so that hashing one password takes
+ * about given target time on the current hardware. Hashes with lower strength still match, and can be detected with
+ * {@link #upgradeEncoding(String)} so they get re-hashed with current strength.
+ **/
+public class AdaptiveBCryptPasswordEncoder implements PasswordEncoder {
+
+    private static final Logger logger = LogManager.getLogger(AdaptiveBCryptPasswordEncoder.class);
+
+    private static final Pattern BCRYPT_PATTERN = Pattern.compile("\\A\\$2a?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}");
+    private static final int MAX_STRENGTH = 31;
+
+    private final int strength;
+    private final BCryptPasswordEncoder delegate;
+
+    // Optional, records duration of password checks
+    private LatencyHistogram matchLatency;
+
+    // Optional, limits number of hashes computed at once (when callers aren't already limited by thread pool size)
+    private Semaphore concurrencyLimit;
+
+    private AdaptiveBCryptPasswordEncoder(int strength) {
+        this.strength = strength;
+        this.delegate = new BCryptPasswordEncoder(strength);
+    }
+
+    public static AdaptiveBCryptPasswordEncoder withStrength(int strength) {
+        return new AdaptiveBCryptPasswordEncoder(strength);
+    }
+
+    public static AdaptiveBCryptPasswordEncoder tunedTo(long targetMillis, int minStrength) {
+        // Each strength increment doubles the work, so single measurement at minimal strength is enough
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(minStrength);
+        encoder.encode("warm-up");
+
+        long start = System.nanoTime();
+        encoder.encode("calibration");
+        long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1000000);
+
+        int strength = minStrength;
+        while (strength < MAX_STRENGTH && elapsedMillis * 2 <= targetMillis) {
+            elapsedMillis *= 2;
+            strength++;
+        }
+
+        logger.info("BCrypt strength set to {} (about {} ms per hash, target {} ms)", strength, elapsedMillis, targetMillis);
+        return new AdaptiveBCryptPasswordEncoder(strength);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        acquire();
+        try {
+            return delegate.encode(rawPassword);
+        } finally {
+            release();
+        }
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        // Strength is read from encoded password itself
+        acquire();
+        try {
+            long start = System.nanoTime();
+            boolean matches = delegate.matches(rawPassword, encodedPassword);
+            if (matchLatency != null) {
+                matchLatency.recordSince(start);
+            }
+            return matches;
+        } finally {
+            release();
+        }
+    }
+
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+
+        Matcher matcher = BCRYPT_PATTERN.matcher(encodedPassword);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) < strength;
+    }
+
+    public void setMatchLatency(LatencyHistogram matchLatency) {
+        this.matchLatency = matchLatency;
+    }
+
+    public void setConcurrencyLimit(int maxConcurrentHashes) {
+        this.concurrencyLimit = new Semaphore(maxConcurrentHashes);
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    private void acquire() {
+        if (concurrencyLimit != null) {
+            concurrencyLimit.acquireUninterruptibly();
+        }
+    }
+
+    private void release() {
+        if (concurrencyLimit != null) {
+            concurrencyLimit.release();
+        }
+    }
+}
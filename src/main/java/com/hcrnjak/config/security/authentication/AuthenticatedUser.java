@@ -1,16 +1,16 @@
 package com.hcrnjak.config.security.authentication;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.hcrnjak.model.Authority;
 import com.hcrnjak.model.User;
+import com.hcrnjak.model.projection.UserAuthenticationRow;
 
 public class AuthenticatedUser implements UserDetails {
 
@@ -21,14 +21,27 @@ public class AuthenticatedUser implements UserDetails {
     private final Collection<? extends GrantedAuthority> authorities;
     private final Boolean enabled;
 
+    // User's version when loaded (or when token was issued), null if not known
+    private final Long version;
+
+    // Authorities as RoleAuthorities bitmask, -1 if some of them isn't a role
+    private final int roles;
+
     public AuthenticatedUser(Long id, String username, String password, String email,
             Collection<? extends GrantedAuthority> authorities, Boolean enabled) {
+        this(id, username, password, email, authorities, enabled, null);
+    }
+
+    public AuthenticatedUser(Long id, String username, String password, String email,
+            Collection<? extends GrantedAuthority> authorities, Boolean enabled, Long version) {
         this.id = id;
         this.username = username;
         this.password = password;
         this.email = email;
         this.authorities = authorities;
         this.enabled = enabled;
+        this.version = version;
+        this.roles = authorities != null ? RoleAuthorities.toBitmask(authorities) : -1;
     }
 
     public static AuthenticatedUser from(User user) {
@@ -38,14 +51,38 @@ public class AuthenticatedUser implements UserDetails {
                 user.getPassword(),
                 user.getEmail(),
                 mapToGrantedAuthorities(user.getAuthorities()),
-                user.getEnabled()
+                user.getEnabled(),
+                user.getTokenVersion()
+        );
+    }
+
+    public static AuthenticatedUser from(List<UserAuthenticationRow> rows) {
+        // User columns are repeated in every row, each row holds one of User's roles
+        UserAuthenticationRow first = rows.get(0);
+        int roles = 0;
+        for (UserAuthenticationRow row : rows) {
+            if (row.getRole() != null) {
+                roles |= RoleAuthorities.bitOf(row.getRole());
+            }
+        }
+
+        return new AuthenticatedUser(
+                first.getId(),
+                first.getUsername(),
+                first.getPassword(),
+                first.getEmail(),
+                RoleAuthorities.fromBitmask(roles),
+                first.getEnabled(),
+                first.getVersion()
         );
     }
 
     private static Set<GrantedAuthority> mapToGrantedAuthorities(Set<Authority> authorities) {
-        return authorities.stream()
-                .map(authority -> new SimpleGrantedAuthority(authority.getRole().name()))
-                .collect(Collectors.toSet());
+        int roles = 0;
+        for (Authority authority : authorities) {
+            roles |= RoleAuthorities.bitOf(authority.getRole());
+        }
+        return RoleAuthorities.fromBitmask(roles);
     }
 
     @Override
@@ -91,7 +128,17 @@ public class AuthenticatedUser implements UserDetails {
         return id;
     }
 
+    @JsonIgnore
+    public Long getVersion() {
+        return version;
+    }
+
     public String getEmail() {
         return email;
     }
+
+    @JsonIgnore
+    public int getRoles() {
+        return roles;
+    }
 }
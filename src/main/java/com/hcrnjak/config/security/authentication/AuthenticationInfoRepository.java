@@ -1,11 +1,14 @@
 package com.hcrnjak.config.security.authentication;
 
+import java.util.List;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
-import com.hcrnjak.model.User;
+import com.hcrnjak.config.security.metrics.AuthenticationMetrics;
+import com.hcrnjak.model.projection.UserAuthenticationRow;
 import com.hcrnjak.repositories.UserRepository;
 
 @Service
@@ -14,17 +17,53 @@ public class AuthenticationInfoRepository implements UserDetailsService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private AuthenticationMetrics authenticationMetrics;
+
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
     @Override
     public AuthenticatedUser loadUserByUsername(String username) throws UsernameNotFoundException {
-        // Get User from Repository
-        User user = userRepository.findByUsername(username);
+        AuthenticatedUser cached = userDetailsCache.get(username);
+        if (cached != null) {
+            return cached;
+        }
+
+        // Get User's authentication info (and roles) from Repository
+        long cacheVersion = userDetailsCache.getVersion();
+        long start = System.nanoTime();
+        List<UserAuthenticationRow> rows = userRepository.findAuthenticationRowsByUsername(username);
+        authenticationMetrics.getUserLookup().recordSince(start);
 
-        if (user != null) {
+        if (!rows.isEmpty()) {
             // Convert User to Spring Security compatible format
-            return  AuthenticatedUser.from(user);
+            AuthenticatedUser user = AuthenticatedUser.from(rows);
+            userDetailsCache.put(user, cacheVersion);
+            return user;
         } else {
             // User not found, throw exception
             throw new UsernameNotFoundException(String.format("No user found with username '%s'.", username));
         }
     }
+
+    public AuthenticatedUser loadUserById(Long id) throws UsernameNotFoundException {
+        AuthenticatedUser cached = userDetailsCache.getById(id);
+        if (cached != null) {
+            return cached;
+        }
+
+        long cacheVersion = userDetailsCache.getVersion();
+        long start = System.nanoTime();
+        List<UserAuthenticationRow> rows = userRepository.findAuthenticationRowsById(id);
+        authenticationMetrics.getUserLookup().recordSince(start);
+
+        if (!rows.isEmpty()) {
+            AuthenticatedUser user = AuthenticatedUser.from(rows);
+            userDetailsCache.put(user, cacheVersion);
+            return user;
+        } else {
+            throw new UsernameNotFoundException(String.format("No user found with id '%s'.", id));
+        }
+    }
 }
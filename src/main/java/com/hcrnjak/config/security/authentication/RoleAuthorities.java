@@ -0,0 +1,81 @@
+package com.hcrnjak.config.security.authentication;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import com.hcrnjak.model.enums.Role;
+
+/**
+ * Compact representation of User's roles as a bitmask, bit at position {@link Role#ordinal()} is set for each role User has.
+ * All possible role combinations are built once, so decoding a bitmask is just an array lookup and every User with the
+ * same roles shares the same (immutable) authority set.
+ * NOTE : bitmasks end up in issued tokens, so new roles must only be appended to {@link Role}, never reordered or removed.
+ **/
+public final class RoleAuthorities {
+
+    private static final Role[] ROLES = Role.values();
+    private static final Map<String, Integer> ROLE_BITS = new HashMap<>();
+    private static final GrantedAuthority[] AUTHORITIES = new GrantedAuthority[ROLES.length];
+    private static final Set<GrantedAuthority>[] AUTHORITY_SETS;
+
+    static {
+        for (Role role : ROLES) {
+            ROLE_BITS.put(role.name(), 1 << role.ordinal());
+            AUTHORITIES[role.ordinal()] = new SimpleGrantedAuthority(role.name());
+        }
+
+        @SuppressWarnings("unchecked")
+        Set<GrantedAuthority>[] authoritySets = new Set[1 << ROLES.length];
+        for (int bitmask = 0; bitmask < authoritySets.length; bitmask++) {
+            Set<GrantedAuthority> authorities = new HashSet<>();
+            for (Role role : ROLES) {
+                if ((bitmask & (1 << role.ordinal())) != 0) {
+                    authorities.add(AUTHORITIES[role.ordinal()]);
+                }
+            }
+            authoritySets[bitmask] = Collections.unmodifiableSet(authorities);
+        }
+        AUTHORITY_SETS = authoritySets;
+    }
+
+    private RoleAuthorities() {
+    }
+
+    public static int bitOf(Role role) {
+        return 1 << role.ordinal();
+    }
+
+    // Returns 0 for authority which isn't one of known roles
+    public static int bitOf(String authority) {
+        Integer bit = ROLE_BITS.get(authority);
+        return bit != null ? bit : 0;
+    }
+
+    // Returns -1 if some of the authorities isn't one of known roles, such authorities can't be encoded as bitmask
+    public static int toBitmask(Collection<? extends GrantedAuthority> authorities) {
+        int bitmask = 0;
+        for (GrantedAuthority authority : authorities) {
+            Integer bit = ROLE_BITS.get(authority.getAuthority());
+            if (bit == null) {
+                return -1;
+            }
+            bitmask |= bit;
+        }
+        return bitmask;
+    }
+
+    // Returns null for bitmask with unknown bits set
+    public static Set<GrantedAuthority> fromBitmask(long bitmask) {
+        if (bitmask < 0 || bitmask >= AUTHORITY_SETS.length) {
+            return null;
+        }
+        return AUTHORITY_SETS[(int) bitmask];
+    }
+}
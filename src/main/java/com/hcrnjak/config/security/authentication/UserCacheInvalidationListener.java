@@ -0,0 +1,136 @@
+package com.hcrnjak.config.security.authentication;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.hcrnjak.model.Authority;
+import com.hcrnjak.model.User;
+
+/**
+ * JPA entity listener invalidating cached authentication info (and updating live User state) when User or Authority
+ * entities change. Listeners are instantiated by Hibernate rather than Spring, so the cache and the registry are handed
+ * over statically on startup.
+ * Callbacks run on flush, before the transaction commits. User's token version is bumped right away (in SQL, so it
+ * commits or rolls back with the change), everything else is done only after commit : a rolled back change must not be
+ * published, and a cache reloaded in between would keep the old state.
+ * NOTE : JPQL bulk updates bypass entity listeners, code doing them has to invalidate the cache itself.
+ **/
+public class UserCacheInvalidationListener {
+
+    private static volatile UserDetailsCache userDetailsCache;
+    private static volatile UserStateRegistry userStateRegistry;
+
+    static void setUserDetailsCache(UserDetailsCache cache) {
+        userDetailsCache = cache;
+    }
+
+    static void setUserStateRegistry(UserStateRegistry registry) {
+        userStateRegistry = registry;
+    }
+
+    @PostPersist
+    public void entityCreated(Object entity) {
+        if (entity instanceof User) {
+            // New User has no tokens yet, only a cached lookup of the username may have to go
+            User user = (User) entity;
+            Long id = user.getId();
+            String username = user.getUsername();
+            afterCommit(() -> invalidateUser(id, username));
+        } else if (entity instanceof Authority) {
+            authorityChanged((Authority) entity);
+        }
+    }
+
+    @PostUpdate
+    public void entityChanged(Object entity) {
+        if (entity instanceof User) {
+            User user = (User) entity;
+            Long id = user.getId();
+            String username = user.getUsername();
+            bumpVersion(id);
+            afterCommit(() -> {
+                invalidateUser(id, username);
+                UserStateRegistry registry = userStateRegistry;
+                if (registry != null) {
+                    registry.refresh(id);
+                }
+            });
+        } else if (entity instanceof Authority) {
+            authorityChanged((Authority) entity);
+        }
+    }
+
+    @PostRemove
+    public void entityRemoved(Object entity) {
+        if (entity instanceof User) {
+            User user = (User) entity;
+            Long id = user.getId();
+            String username = user.getUsername();
+            afterCommit(() -> {
+                invalidateUser(id, username);
+                UserStateRegistry registry = userStateRegistry;
+                if (registry != null) {
+                    registry.remove(id);
+                }
+            });
+        } else if (entity instanceof Authority) {
+            authorityChanged((Authority) entity);
+        }
+    }
+
+    private void authorityChanged(Authority authority) {
+        // Owner isn't known for Authority added in this transaction, adding it to User's authorities updates User itself.
+        // Changed role alone doesn't touch USERS row, so owner's version is bumped here, tokens carrying the old role are
+        // then rejected by the live User check
+        Long userId = authority.getUserId();
+        if (userId != null) {
+            bumpVersion(userId);
+        }
+        afterCommit(() -> {
+            UserDetailsCache cache = userDetailsCache;
+            if (cache != null) {
+                // Cache is keyed by username too, role changes are rare enough to drop everything
+                cache.clear();
+            }
+            UserStateRegistry registry = userStateRegistry;
+            if (registry != null && userId != null) {
+                registry.refresh(userId);
+            }
+        });
+    }
+
+    // Within the changing transaction, so the bump is rolled back with the change
+    private static void bumpVersion(Long userId) {
+        UserStateRegistry registry = userStateRegistry;
+        if (registry != null && registry.isEnabled()) {
+            registry.bumpVersion(userId);
+        }
+    }
+
+    private static void invalidateUser(Long id, String username) {
+        UserDetailsCache cache = userDetailsCache;
+        if (cache != null) {
+            cache.invalidate(id);
+            // Username itself may have changed
+            cache.invalidate(username);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
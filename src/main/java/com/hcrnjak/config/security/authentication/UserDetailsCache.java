@@ -0,0 +1,183 @@
+package com.hcrnjak.config.security.authentication;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Users' authentication info (password hash, enabled flag, roles) by username, so repeated logins and refreshes don't go to
+ * the database. Entries live for 'login.userCache.ttl' at most and cache size is bounded by 'login.userCache.maxEntries'.
+ * Entries are invalidated when User or their authorities change through JPA (see {@link UserCacheInvalidationListener})
+ * or through bulk updates which call {@link #invalidate(Long)} explicitly. Changes made directly in the database (or by
+ * another app instance) are seen once entries expire.
+ **/
+@Component
+public class UserDetailsCache {
+
+    private final Logger logger = LogManager.getLogger(UserDetailsCache.class);
+
+    @Value("${login.userCache.enabled}")
+    private boolean enabled;
+
+    @Value("${login.userCache.maxEntries}")
+    private int maxEntries;
+
+    @Value("${login.userCache.ttl}")
+    private long ttl;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<Long, String> usernamesById = new ConcurrentHashMap<>();
+
+    // Incremented on every invalidation, Users loaded before an invalidation aren't cached (they may be stale already)
+    private final AtomicLong version = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        UserCacheInvalidationListener.setUserDetailsCache(this);
+    }
+
+    public AuthenticatedUser get(String username) {
+        if (!enabled) {
+            return null;
+        }
+
+        Entry entry = entries.get(username);
+        if (entry == null || entry.expiresAt <= System.currentTimeMillis()) {
+            misses.increment();
+            return null;
+        }
+
+        hits.increment();
+        return entry.user;
+    }
+
+    public AuthenticatedUser getById(Long id) {
+        String username = enabled ? usernamesById.get(id) : null;
+        if (username == null) {
+            misses.increment();
+            return null;
+        }
+        return get(username);
+    }
+
+    // Version has to be read before User is loaded, and passed here once loaded
+    public long getVersion() {
+        return version.get();
+    }
+
+    public void put(AuthenticatedUser user, long loadedAtVersion) {
+        if (!enabled) {
+            return;
+        }
+        if (entries.size() >= maxEntries) {
+            evict();
+        }
+
+        entries.put(user.getUsername(), new Entry(user, System.currentTimeMillis() + ttl));
+        usernamesById.put(user.getId(), user.getUsername());
+
+        // Invalidated while being loaded, the entry might be stale
+        if (version.get() != loadedAtVersion) {
+            entries.remove(user.getUsername());
+        }
+    }
+
+    public void invalidate(Long userId) {
+        version.incrementAndGet();
+        String username = usernamesById.remove(userId);
+        if (username != null) {
+            entries.remove(username);
+        }
+    }
+
+    public void invalidate(String username) {
+        version.incrementAndGet();
+        entries.remove(username);
+    }
+
+    public void clear() {
+        version.incrementAndGet();
+        entries.clear();
+        usernamesById.clear();
+    }
+
+    @Scheduled(fixedDelayString = "${login.userCache.ttl}")
+    public void pruneExpired() {
+        if (enabled) {
+            int removed = removeExpired(System.currentTimeMillis());
+            logger.debug("Pruned {} expired Users, {} cached", removed, entries.size());
+        }
+    }
+
+    private void evict() {
+        // Expired entries go first. If that's not enough, drop arbitrary entries to get 10% below the limit
+        if (removeExpired(System.currentTimeMillis()) > 0 && entries.size() < maxEntries) {
+            return;
+        }
+
+        int target = maxEntries - Math.max(1, maxEntries / 10);
+        Iterator<Entry> values = entries.values().iterator();
+        while (entries.size() > target && values.hasNext()) {
+            usernamesById.remove(values.next().user.getId());
+            values.remove();
+            evictions.increment();
+        }
+    }
+
+    private int removeExpired(long now) {
+        int removed = 0;
+        Iterator<Entry> values = entries.values().iterator();
+        while (values.hasNext()) {
+            Entry entry = values.next();
+            if (entry.expiresAt <= now) {
+                usernamesById.remove(entry.user.getId());
+                values.remove();
+                removed++;
+            }
+        }
+        evictions.add(removed);
+        return removed;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+
+    private static final class Entry {
+
+        private final AuthenticatedUser user;
+        private final long expiresAt;
+
+        private Entry(AuthenticatedUser user, long expiresAt) {
+            this.user = user;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
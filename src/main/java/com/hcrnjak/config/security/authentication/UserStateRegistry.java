@@ -0,0 +1,141 @@
+package com.hcrnjak.config.security.authentication;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.PostConstruct;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.hcrnjak.config.security.jwt.TokenClock;
+import com.hcrnjak.config.security.jwt.TokenVerificationFailure;
+
+/**
+ * Current enabled flag and token version of Users, for the optional live User check ('jwt.liveUserCheck.enabled') : tokens of
+ * disabled Users, and tokens issued before User changed (e.g. lost a role), are rejected before they expire.
+ * State is held as a single packed long per User (version << 1 | enabled bit), so the check is a hash lookup. Users are
+ * loaded on first use, after that the map is kept current by polling for Users changed since the previous poll, and by
+ * entity listener for changes made by this instance. Token version is a column of its own (not JPA version), bumped in
+ * SQL by the same listener.
+ **/
+@Component
+public class UserStateRegistry {
+
+    private final Logger logger = LogManager.getLogger(UserStateRegistry.class);
+
+    // User doesn't exist (anymore)
+    private static final long DELETED = -1;
+
+    @Value("${jwt.liveUserCheck.enabled}")
+    private boolean enabled;
+
+    @Value("${jwt.liveUserCheck.pollInterval}")
+    private long pollInterval;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TokenClock clock;
+
+    private final Map<Long, Long> states = new ConcurrentHashMap<>();
+
+    // Users updated at or after this moment (epoch millis) are read by the next poll
+    private volatile long pollFrom;
+
+    @PostConstruct
+    public void init() {
+        pollFrom = clock.currentTimeMillis();
+        UserCacheInvalidationListener.setUserStateRegistry(this);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Returns null if User's token is still acceptable, tokens without version only get the enabled flag checked
+    public TokenVerificationFailure check(Long userId, Long tokenVersion) {
+        Long state = states.get(userId);
+        if (state == null) {
+            state = load(userId);
+        }
+
+        if (state == DELETED || (state & 1) == 0) {
+            return TokenVerificationFailure.USER_DISABLED;
+        }
+        if (tokenVersion != null && state >>> 1 != tokenVersion) {
+            return TokenVerificationFailure.USER_CHANGED;
+        }
+        return null;
+    }
+
+    private void update(Long userId, Boolean userEnabled, Long version) {
+        // Only Users this instance has seen tokens of are tracked
+        states.computeIfPresent(userId, (id, state) -> pack(userEnabled, version));
+    }
+
+    // Called on flush of changed User (or its Authority), so the bump commits or rolls back with the change. Tokens
+    // issued before are rejected once it commits, other instances pick it up by polling
+    public void bumpVersion(Long userId) {
+        jdbcTemplate.update("update USERS set TOKEN_VERSION = TOKEN_VERSION + 1, UPDATED_AT = ? where ID = ?",
+                clock.currentTimeMillis(), userId);
+    }
+
+    // Called after change of User has committed, re-reads the state if it's tracked
+    public void refresh(Long userId) {
+        if (states.containsKey(userId)) {
+            long state = read(userId);
+            states.computeIfPresent(userId, (id, current) -> state);
+        }
+    }
+
+    public void remove(Long userId) {
+        states.computeIfPresent(userId, (id, state) -> DELETED);
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.liveUserCheck.pollInterval}")
+    public void poll() {
+        if (!enabled || states.isEmpty()) {
+            return;
+        }
+
+        // Poll overlaps with the previous one, so changes committed late (or stamped by instance with slightly different
+        // clock) aren't missed. Re-reading a few rows is harmless
+        long from = pollFrom;
+        long started = clock.currentTimeMillis();
+        List<Map<String, Object>> changed = jdbcTemplate.queryForList(
+                "select ID, ENABLED, TOKEN_VERSION from USERS where UPDATED_AT >= ?", from - pollInterval);
+        for (Map<String, Object> row : changed) {
+            update(((Number) row.get("ID")).longValue(), (Boolean) row.get("ENABLED"),
+                    ((Number) row.get("TOKEN_VERSION")).longValue());
+        }
+        pollFrom = started;
+        logger.debug("Polled {} changed Users, {} tracked", changed.size(), states.size());
+    }
+
+    private long load(Long userId) {
+        long state = read(userId);
+        // Poll (or listener) may have stored a newer state in the meantime
+        Long current = states.putIfAbsent(userId, state);
+        return current != null ? current : state;
+    }
+
+    private long read(Long userId) {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "select ENABLED, TOKEN_VERSION from USERS where ID = ?", userId);
+        return rows.isEmpty()
+                ? DELETED
+                : pack((Boolean) rows.get(0).get("ENABLED"), ((Number) rows.get(0).get("TOKEN_VERSION")).longValue());
+    }
+
+    private static long pack(Boolean userEnabled, Long version) {
+        return (version == null ? 0 : version << 1) | (Boolean.TRUE.equals(userEnabled) ? 1 : 0);
+    }
+}
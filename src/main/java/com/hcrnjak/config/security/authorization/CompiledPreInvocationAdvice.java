@@ -0,0 +1,51 @@
+package com.hcrnjak.config.security.authorization;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.security.access.prepost.PreInvocationAttribute;
+import org.springframework.security.access.prepost.PreInvocationAuthorizationAdvice;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import com.hcrnjak.config.security.authentication.RoleAuthorities;
+import com.hcrnjak.config.security.jwt.JwtAuthentication;
+
+/**
+ * Evaluates compiled @PreAuthorize rules (see {@link CompilingAttributeFactory}) as bit operations on User's roles
+ * bitmask, instead of evaluating SpEL which creates evaluation context and a set of User's authorities on every call.
+ * Attributes which weren't compiled, and anonymous Users or Users with authorities which aren't roles are left to the
+ * SpEL based advice.
+ **/
+public class CompiledPreInvocationAdvice implements PreInvocationAuthorizationAdvice {
+
+    private final PreInvocationAuthorizationAdvice expressionAdvice;
+
+    public CompiledPreInvocationAdvice(PreInvocationAuthorizationAdvice expressionAdvice) {
+        this.expressionAdvice = expressionAdvice;
+    }
+
+    @Override
+    public boolean before(Authentication authentication, MethodInvocation invocation, PreInvocationAttribute attribute) {
+        if (!(attribute instanceof CompiledPreInvocationAttribute)) {
+            return expressionAdvice.before(authentication, invocation, attribute);
+        }
+
+        CompiledPreInvocationAttribute compiled = (CompiledPreInvocationAttribute) attribute;
+        int roles = rolesOf(authentication);
+        if (roles < 0) {
+            return expressionAdvice.before(authentication, invocation, compiled.getExpressionAttribute());
+        }
+        return compiled.getRule().matches(roles);
+    }
+
+    // Returns -1 if compiled rules don't apply to this Authentication
+    private static int rolesOf(Authentication authentication) {
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken || !authentication.isAuthenticated()) {
+            return -1;
+        }
+        if (authentication instanceof JwtAuthentication) {
+            // Computed once per verified token
+            return ((JwtAuthentication) authentication).getRoles();
+        }
+        return RoleAuthorities.toBitmask(authentication.getAuthorities());
+    }
+}
@@ -0,0 +1,37 @@
+package com.hcrnjak.config.security.authorization;
+
+import org.springframework.security.access.prepost.PreInvocationAttribute;
+
+/**
+ * @PreAuthorize attribute with the expression compiled to {@link RoleRule}, next to the SpEL attribute which is used
+ * when the compiled rule doesn't apply.
+ **/
+class CompiledPreInvocationAttribute implements PreInvocationAttribute {
+
+    private final RoleRule rule;
+    private final PreInvocationAttribute expressionAttribute;
+
+    CompiledPreInvocationAttribute(RoleRule rule, PreInvocationAttribute expressionAttribute) {
+        this.rule = rule;
+        this.expressionAttribute = expressionAttribute;
+    }
+
+    RoleRule getRule() {
+        return rule;
+    }
+
+    PreInvocationAttribute getExpressionAttribute() {
+        return expressionAttribute;
+    }
+
+    @Override
+    public String getAttribute() {
+        // Not representable as a String, same as expression attributes
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return "compiled " + expressionAttribute;
+    }
+}
@@ -0,0 +1,37 @@
+package com.hcrnjak.config.security.authorization;
+
+import org.springframework.security.access.prepost.PostInvocationAttribute;
+import org.springframework.security.access.prepost.PreInvocationAttribute;
+import org.springframework.security.access.prepost.PrePostInvocationAttributeFactory;
+
+/**
+ * Creates @PreAuthorize attributes with role expressions compiled to {@link RoleRule}s, once per annotated method
+ * when its metadata is read (on startup, while security proxies are created). Methods with @PreFilter or expressions
+ * which can't be compiled get plain SpEL attributes.
+ **/
+public class CompilingAttributeFactory implements PrePostInvocationAttributeFactory {
+
+    private final PrePostInvocationAttributeFactory expressionFactory;
+
+    public CompilingAttributeFactory(PrePostInvocationAttributeFactory expressionFactory) {
+        this.expressionFactory = expressionFactory;
+    }
+
+    @Override
+    public PreInvocationAttribute createPreInvocationAttribute(String preFilterAttribute, String filterObject,
+            String preAuthorizeAttribute) {
+        PreInvocationAttribute expressionAttribute = expressionFactory.createPreInvocationAttribute(preFilterAttribute,
+                filterObject, preAuthorizeAttribute);
+        if (expressionAttribute == null || preFilterAttribute != null || preAuthorizeAttribute == null) {
+            return expressionAttribute;
+        }
+
+        RoleRule rule = RoleExpressionCompiler.compile(preAuthorizeAttribute);
+        return rule != null ? new CompiledPreInvocationAttribute(rule, expressionAttribute) : expressionAttribute;
+    }
+
+    @Override
+    public PostInvocationAttribute createPostInvocationAttribute(String postFilterAttribute, String postAuthorizeAttribute) {
+        return expressionFactory.createPostInvocationAttribute(postFilterAttribute, postAuthorizeAttribute);
+    }
+}
@@ -0,0 +1,179 @@
+package com.hcrnjak.config.security.authorization;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.hcrnjak.config.security.authentication.RoleAuthorities;
+
+/**
+ * Compiles the role-only subset of Spring Security expressions into {@link RoleRule}s :
+ * hasRole, hasAnyRole, hasAuthority, hasAnyAuthority, isAuthenticated(), permitAll, denyAll, combined with
+ * and/or/not (&&, ||, !) and parentheses. Anything else (principal, #arguments, beans, ...) isn't compiled and has
+ * to be evaluated as SpEL.
+ * Compiled rules are only valid for authenticated (non-anonymous) Users and without role hierarchy.
+ **/
+public final class RoleExpressionCompiler {
+
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    private final List<String> tokens;
+    private int position;
+
+    private RoleExpressionCompiler(List<String> tokens) {
+        this.tokens = tokens;
+    }
+
+    // Returns null if expression can't be compiled
+    public static RoleRule compile(String expression) {
+        List<String> tokens = tokenize(expression);
+        if (tokens == null || tokens.isEmpty()) {
+            return null;
+        }
+
+        RoleExpressionCompiler compiler = new RoleExpressionCompiler(tokens);
+        RoleRule rule = compiler.or();
+        return rule != null && compiler.position == tokens.size() ? rule : null;
+    }
+
+    private RoleRule or() {
+        RoleRule rule = and();
+        while (rule != null && (accept("or") || accept("||"))) {
+            RoleRule left = rule;
+            RoleRule right = and();
+            rule = right != null ? roles -> left.matches(roles) || right.matches(roles) : null;
+        }
+        return rule;
+    }
+
+    private RoleRule and() {
+        RoleRule rule = not();
+        while (rule != null && (accept("and") || accept("&&"))) {
+            RoleRule left = rule;
+            RoleRule right = not();
+            rule = right != null ? roles -> left.matches(roles) && right.matches(roles) : null;
+        }
+        return rule;
+    }
+
+    private RoleRule not() {
+        if (accept("!") || accept("not")) {
+            RoleRule rule = not();
+            return rule != null ? roles -> !rule.matches(roles) : null;
+        }
+        return primary();
+    }
+
+    private RoleRule primary() {
+        if (accept("(")) {
+            RoleRule rule = or();
+            return rule != null && accept(")") ? rule : null;
+        }
+        if (accept("permitAll") || accept("true")) {
+            return roles -> true;
+        }
+        if (accept("denyAll") || accept("false")) {
+            return roles -> false;
+        }
+        if (position >= tokens.size()) {
+            return null;
+        }
+
+        String function = tokens.get(position++);
+        List<String> arguments = arguments();
+        if (arguments == null) {
+            return null;
+        }
+
+        switch (function) {
+            case "isAuthenticated":
+                return arguments.isEmpty() ? roles -> true : null;
+            case "hasRole":
+            case "hasAnyRole":
+                return anyOf(arguments, function.equals("hasRole"), true);
+            case "hasAuthority":
+            case "hasAnyAuthority":
+                return anyOf(arguments, function.equals("hasAuthority"), false);
+            default:
+                return null;
+        }
+    }
+
+    // String literals between parentheses, null if there are none or an argument isn't a literal
+    private List<String> arguments() {
+        if (!accept("(")) {
+            return null;
+        }
+
+        List<String> arguments = new ArrayList<>();
+        if (accept(")")) {
+            return arguments;
+        }
+        do {
+            if (position >= tokens.size() || !tokens.get(position).startsWith("'")) {
+                return null;
+            }
+            String literal = tokens.get(position++);
+            arguments.add(literal.substring(1, literal.length() - 1));
+        } while (accept(","));
+        return accept(")") ? arguments : null;
+    }
+
+    private static RoleRule anyOf(List<String> names, boolean single, boolean roleNames) {
+        if (names.isEmpty() || (single && names.size() > 1)) {
+            return null;
+        }
+
+        int mask = 0;
+        for (String name : names) {
+            // Same as SpEL hasRole : prefix is added unless it's already there. Unknown roles match no User
+            String authority = roleNames && !name.startsWith(ROLE_PREFIX) ? ROLE_PREFIX + name : name;
+            mask |= RoleAuthorities.bitOf(authority);
+        }
+
+        int roleMask = mask;
+        return roles -> (roles & roleMask) != 0;
+    }
+
+    private boolean accept(String token) {
+        if (position < tokens.size() && tokens.get(position).equals(token)) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    // Splits expression into identifiers, 'literals' and operators, returns null on anything unexpected
+    private static List<String> tokenize(String expression) {
+        List<String> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < expression.length()) {
+            char c = expression.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (Character.isJavaIdentifierStart(c)) {
+                int start = i;
+                while (i < expression.length() && Character.isJavaIdentifierPart(expression.charAt(i))) {
+                    i++;
+                }
+                tokens.add(expression.substring(start, i));
+            } else if (c == '\'') {
+                int end = expression.indexOf('\'', i + 1);
+                // Escaped quote ('') inside literal isn't supported
+                if (end < 0 || (end + 1 < expression.length() && expression.charAt(end + 1) == '\'')) {
+                    return null;
+                }
+                tokens.add(expression.substring(i, end + 1));
+                i = end + 1;
+            } else if (expression.startsWith("&&", i) || expression.startsWith("||", i)) {
+                tokens.add(expression.substring(i, i + 2));
+                i += 2;
+            } else if (c == '(' || c == ')' || c == ',' || c == '!') {
+                tokens.add(String.valueOf(c));
+                i++;
+            } else {
+                return null;
+            }
+        }
+        return tokens;
+    }
+}
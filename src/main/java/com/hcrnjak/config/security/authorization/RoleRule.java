@@ -0,0 +1,11 @@
+package com.hcrnjak.config.security.authorization;
+
+/**
+ * Authorization rule compiled from @PreAuthorize expression, evaluated against authenticated User's roles bitmask
+ * (see {@link com.hcrnjak.config.security.authentication.RoleAuthorities}).
+ **/
+@FunctionalInterface
+public interface RoleRule {
+
+    boolean matches(int roles);
+}
@@ -0,0 +1,56 @@
+package com.hcrnjak.config.security.jwt;
+
+import java.security.GeneralSecurityException;
+import java.security.PrivateKey;
+import java.security.Signature;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.impl.crypto.EllipticCurveProvider;
+
+/**
+ * Computes RSA and ECDSA signatures with pre-initialized private key. Each thread gets its own Signature instance
+ * (they are not thread safe), already initialized for signing so only the data has to be fed in.
+ **/
+public class AsymmetricSigner implements JwtSigner {
+
+    private final SignatureAlgorithm algorithm;
+    private final ThreadLocal<Signature> signatures;
+
+    public AsymmetricSigner(SignatureAlgorithm algorithm, PrivateKey key) {
+        if (!algorithm.isRsa() && !algorithm.isEllipticCurve()) {
+            throw new IllegalArgumentException(algorithm + " is not an asymmetric signature algorithm");
+        }
+        this.algorithm = algorithm;
+        this.signatures = ThreadLocal.withInitial(() -> newSignature(algorithm, key));
+
+        // Fail on startup if key doesn't fit the algorithm
+        signatures.get();
+    }
+
+    @Override
+    public byte[] sign(byte[] data) {
+        try {
+            // Signature is reset to the state after initSign() once signature is generated
+            Signature signature = signatures.get();
+            signature.update(data);
+            byte[] signatureBytes = signature.sign();
+
+            // JCA produces DER encoded ECDSA signatures, JWS expects concatenated R and S values
+            return algorithm.isEllipticCurve()
+                    ? EllipticCurveProvider.transcodeSignatureToConcat(signatureBytes, EllipticCurveProvider.getSignatureByteArrayLength(algorithm))
+                    : signatureBytes;
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("Unable to sign JWT with " + algorithm, ex);
+        }
+    }
+
+    private static Signature newSignature(SignatureAlgorithm algorithm, PrivateKey key) {
+        try {
+            Signature signature = Signature.getInstance(algorithm.getJcaName());
+            signature.initSign(key);
+            return signature;
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("Unable to initialize " + algorithm + " signature", ex);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.hcrnjak.config.security.jwt;
+
+import java.util.Arrays;
+
+/**
+ * Base64url (unpadded) decoding of token segments straight from the token string into a caller's buffer, without
+ * substring or array copies done by java.util.Base64.
+ **/
+final class Base64Url {
+
+    // 6-bit values of base64url characters, -1 for characters outside of base64url alphabet
+    private static final byte[] VALUES = new byte[128];
+
+    static {
+        Arrays.fill(VALUES, (byte) -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        for (int i = 0; i < alphabet.length(); i++) {
+            VALUES[alphabet.charAt(i)] = (byte) i;
+        }
+    }
+
+    private Base64Url() {
+    }
+
+    static boolean isValid(char c) {
+        return c < 128 && VALUES[c] >= 0;
+    }
+
+    static int decodedLength(int encodedLength) {
+        return encodedLength * 3 / 4;
+    }
+
+    // Decodes characters [start, end) into buffer at offset, returns number of bytes or -1 if they aren't base64url
+    static int decode(String value, int start, int end, byte[] buffer, int offset) {
+        if ((end - start) % 4 == 1) {
+            return -1;
+        }
+
+        int bits = 0;
+        int bitCount = 0;
+        int position = offset;
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            if (!isValid(c)) {
+                return -1;
+            }
+            bits = (bits << 6) | VALUES[c];
+            bitCount += 6;
+            if (bitCount >= 8) {
+                bitCount -= 8;
+                buffer[position++] = (byte) (bits >> bitCount);
+            }
+        }
+        return position - offset;
+    }
+}
@@ -0,0 +1,54 @@
+package com.hcrnjak.config.security.jwt;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Current time read from a field updated every 'jwt.clock.tickInterval' milliseconds by a ticker thread, instead of
+ * asking the OS on every token issued or verified. Token timestamps have one second resolution, so a slightly stale
+ * time is fine. Interval 0 reads system time on each call.
+ **/
+@Component
+public class CoarseTokenClock implements TokenClock {
+
+    @Value("${jwt.clock.tickInterval}")
+    private long tickInterval;
+
+    private volatile long now = System.currentTimeMillis();
+    private Thread ticker;
+
+    @PostConstruct
+    public void start() {
+        if (tickInterval > 0) {
+            ticker = new Thread(this::tick, "token-clock");
+            ticker.setDaemon(true);
+            ticker.start();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (ticker != null) {
+            ticker.interrupt();
+        }
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return tickInterval > 0 ? now : System.currentTimeMillis();
+    }
+
+    private void tick() {
+        while (!Thread.currentThread().isInterrupted()) {
+            now = System.currentTimeMillis();
+            try {
+                Thread.sleep(tickInterval);
+            } catch (InterruptedException ex) {
+                return;
+            }
+        }
+    }
+}
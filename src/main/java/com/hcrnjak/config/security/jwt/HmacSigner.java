@@ -0,0 +1,60 @@
+package com.hcrnjak.config.security.jwt;
+
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Computes HMAC signatures with pre-initialized key material. Mac instances are not thread safe, so each thread gets its
+ * own copy cloned from a prototype (cloning skips provider lookup and key setup done by Mac.getInstance() and init()).
+ **/
+public class HmacSigner implements JwtSigner {
+
+    private final SecretKeySpec key;
+    private final Mac prototype;
+    private final ThreadLocal<Mac> macs;
+
+    public HmacSigner(SecretKeySpec key) {
+        this.key = key;
+        this.prototype = newMac(key);
+        this.macs = ThreadLocal.withInitial(this::copyPrototype);
+    }
+
+    @Override
+    public byte[] sign(byte[] data) {
+        return sign(data, 0, data.length);
+    }
+
+    public byte[] sign(byte[] data, int offset, int length) {
+        Mac mac = macs.get();
+        mac.update(data, offset, length);
+        return mac.doFinal();
+    }
+
+    public boolean verify(byte[] data, int offset, int length, byte[] signature) {
+        // Constant time comparison, doesn't leak how much of the signature matched
+        return MessageDigest.isEqual(sign(data, offset, length), signature);
+    }
+
+    private Mac copyPrototype() {
+        try {
+            return (Mac) prototype.clone();
+        } catch (CloneNotSupportedException ex) {
+            // Not all providers support cloning
+            return newMac(key);
+        }
+    }
+
+    private static Mac newMac(SecretKeySpec key) {
+        try {
+            Mac mac = Mac.getInstance(key.getAlgorithm());
+            mac.init(key);
+            return mac;
+        } catch (NoSuchAlgorithmException | InvalidKeyException ex) {
+            throw new IllegalStateException("Unable to initialize " + key.getAlgorithm(), ex);
+        }
+    }
+}
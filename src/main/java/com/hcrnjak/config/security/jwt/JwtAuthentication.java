@@ -0,0 +1,92 @@
+package com.hcrnjak.config.security.jwt;
+
+import java.util.Collection;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+import com.hcrnjak.config.security.authentication.AuthenticatedUser;
+
+/**
+ * Authentication of a request carrying valid JWT. It only wraps the verification result (which is shared through
+ * verified token cache), so populating SecurityContext costs a single small allocation : authorities are User's
+ * canonical authority set and there are no request details (sessions aren't used, so there's nothing to look up).
+ * Immutable, it can't be turned into unauthenticated one, SecurityContext has to be cleared instead.
+ **/
+public final class JwtAuthentication implements Authentication {
+
+    private static final long serialVersionUID = 1L;
+
+    private final TokenVerificationResult result;
+
+    JwtAuthentication(TokenVerificationResult result) {
+        this.result = result;
+    }
+
+    @Override
+    public AuthenticatedUser getPrincipal() {
+        return result.getUser();
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return result.getUser().getAuthorities();
+    }
+
+    // Token isn't kept, only its verification result
+    @Override
+    public Object getCredentials() {
+        return null;
+    }
+
+    @Override
+    public Object getDetails() {
+        return null;
+    }
+
+    @Override
+    public String getName() {
+        return result.getUser().getUsername();
+    }
+
+    @Override
+    public boolean isAuthenticated() {
+        return true;
+    }
+
+    @Override
+    public void setAuthenticated(boolean authenticated) {
+        if (!authenticated) {
+            throw new IllegalArgumentException("JWT authentication is immutable, clear SecurityContext instead");
+        }
+    }
+
+    public String getTokenId() {
+        return result.getTokenId();
+    }
+
+    // Epoch seconds
+    public long getExpiresAt() {
+        return result.getExpiresAt();
+    }
+
+    // Roles as RoleAuthorities bitmask, -1 if some of the authorities isn't a role
+    public int getRoles() {
+        return result.getUser().getRoles();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof JwtAuthentication && getTokenId().equals(((JwtAuthentication) other).getTokenId());
+    }
+
+    @Override
+    public int hashCode() {
+        return getTokenId().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "JwtAuthentication{user=" + getName() + ", authorities=" + getAuthorities() + '}';
+    }
+}
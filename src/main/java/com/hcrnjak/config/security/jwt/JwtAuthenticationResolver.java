@@ -0,0 +1,55 @@
+package com.hcrnjak.config.security.jwt;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.hcrnjak.config.security.metrics.AuthenticationMetrics;
+
+/**
+ * Turns JWT from a request header into Spring Security Authentication, independently of the web stack handling the
+ * request. Resolution never blocks on I/O in the common case (signature check, in-memory revocation and User state
+ * lookups), so it can be called from request threads as well as from event loop threads of a non-blocking front end.
+ **/
+@Component
+public class JwtAuthenticationResolver {
+
+    private final Logger logger = LogManager.getLogger(JwtAuthenticationResolver.class);
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    @Autowired
+    private JwtTokenHandler jwtTokenHandler;
+
+    @Autowired
+    private AuthenticationMetrics authenticationMetrics;
+
+    // Header may hold the token alone or 'Bearer <token>'
+    public static String tokenFrom(String header) {
+        if (header != null && header.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+            return header.substring(BEARER_PREFIX.length());
+        }
+        return header;
+    }
+
+    // Returns null if there's no token or the token isn't valid
+    public JwtAuthentication resolve(String header) {
+        String jwt = tokenFrom(header);
+        if (StringUtils.isEmpty(jwt)) {
+            return null;
+        }
+
+        long start = System.nanoTime();
+        if (logger.isDebugEnabled()) {
+            // Token is a credential, only its fingerprint is logged
+            logger.debug("Checking JWT {}", TokenFingerprint.of(jwt));
+        }
+
+        // Verify and parse JWT in one pass
+        TokenVerificationResult result = jwtTokenHandler.verifyToken(jwt);
+        authenticationMetrics.getFilter().recordSince(start);
+        return result.isValid() ? new JwtAuthentication(result) : null;
+    }
+}
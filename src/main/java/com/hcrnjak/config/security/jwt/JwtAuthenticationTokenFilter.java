@@ -7,50 +7,42 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
-import org.apache.commons.lang3.StringUtils;
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.web.filter.OncePerRequestFilter;
 
-import com.hcrnjak.config.security.authentication.AuthenticatedUser;
-
 public class JwtAuthenticationTokenFilter extends OncePerRequestFilter {
 
-    private final Logger logger = LogManager.getLogger(JwtAuthenticationTokenFilter.class);
-
     @Value("${jwt.header}")
     private String tokenHeader;
 
     @Autowired
-    private JwtTokenHandler jwtTokenHandler;
+    private JwtAuthenticationResolver jwtAuthenticationResolver;
+
+    // Default implementation concatenates it on every request
+    private final String alreadyFilteredAttributeName = getClass().getName() + ALREADY_FILTERED_SUFFIX;
+
+    @Override
+    protected String getAlreadyFilteredAttributeName() {
+        return alreadyFilteredAttributeName;
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
             FilterChain filterChain) throws ServletException, IOException {
 
-        String jwt = request.getHeader(this.tokenHeader);
-        logger.info("Checking JWT : " + jwt);
-
         // User not already authenticated, try to authenticate him through JWT
-        if (SecurityContextHolder.getContext().getAuthentication() == null && StringUtils.isNotEmpty(jwt)) {
-            if (jwtTokenHandler.isTokenValid(jwt)) {
+        if (SecurityContextHolder.getContext().getAuthentication() == null) {
+            JwtAuthentication authentication = jwtAuthenticationResolver.resolve(request.getHeader(this.tokenHeader));
 
-                // Parse JWT
-                AuthenticatedUser user = jwtTokenHandler.parseToken(jwt);
-
-                // If JWT valid, populate SecurityContext with the data
-                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            // If JWT valid, populate SecurityContext with the data. Sessions aren't used, so no request details are
+            // collected (WebAuthenticationDetails would look up the session)
+            if (authentication != null) {
                 SecurityContextHolder.getContext().setAuthentication(authentication);
             }
         }
 
-
         filterChain.doFilter(request, response);
     }
 }
@@ -0,0 +1,266 @@
+package com.hcrnjak.config.security.jwt;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import javax.annotation.PostConstruct;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+import com.hcrnjak.config.security.jwt.JwtSignatureProperties.KeyProperties;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SignatureException;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.impl.TextCodec;
+import io.jsonwebtoken.impl.crypto.EllipticCurveProvider;
+
+/**
+ * Key material used to sign and verify JWTs, loaded once on startup.
+ * HMAC algorithms use 'jwt.secret' as the only key. Asymmetric algorithms use keys from 'jwt.signature.keys' : the first
+ * one signs new tokens and its id is put into 'kid' header, the others are previous keys which are only used to verify
+ * tokens issued before key rotation. Public keys are published as JWK Set so other services can verify tokens offline.
+ **/
+@Component
+public class JwtKeySet extends SigningKeyResolverAdapter {
+
+    private final Logger logger = LogManager.getLogger(JwtKeySet.class);
+
+    private static final Base64.Encoder BASE64_URL_ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    @Value("${jwt.secret}")
+    private String secret;
+
+    @Autowired
+    private JwtSignatureProperties signatureProperties;
+
+    @Autowired
+    private ResourceLoader resourceLoader;
+
+    private SignatureAlgorithm algorithm;
+    private String signingKeyId;
+    private JwtSigner signer;
+
+    // Key used for tokens without 'kid' header (HMAC only)
+    private Key defaultKey;
+    private Map<String, Key> verificationKeys;
+    private Map<String, Object> jwks;
+
+    @PostConstruct
+    public void init() throws GeneralSecurityException, IOException {
+        algorithm = signatureProperties.getAlgorithm();
+        Map<String, Key> keys = new HashMap<>();
+        List<Map<String, Object>> jwkList = new ArrayList<>();
+
+        if (algorithm.isHmac()) {
+            // jjwt treats String secrets as Base64 encoded keys, keep it that way so existing tokens stay valid
+            SecretKeySpec secretKey = new SecretKeySpec(TextCodec.BASE64.decode(secret), algorithm.getJcaName());
+            signer = new HmacSigner(secretKey);
+            defaultKey = secretKey;
+        } else if ((algorithm.isRsa() && !algorithm.getValue().startsWith("PS")) || algorithm.isEllipticCurve()) {
+            List<KeyProperties> keyProperties = signatureProperties.getKeys();
+            if (keyProperties.isEmpty()) {
+                // Tokens won't survive restart and other instances won't accept them, only useful for development
+                KeyPair keyPair = generateKeyPair();
+                signingKeyId = UUID.randomUUID().toString();
+                signer = new AsymmetricSigner(algorithm, keyPair.getPrivate());
+                keys.put(signingKeyId, keyPair.getPublic());
+                jwkList.add(toJwk(signingKeyId, keyPair.getPublic()));
+                logger.warn("No JWT signature keys configured, generated {} key pair with id '{}'", algorithm, signingKeyId);
+            } else {
+                for (KeyProperties key : keyProperties) {
+                    PublicKey publicKey = readPublicKey(key.getPublicKey());
+                    if (keys.put(key.getId(), publicKey) != null) {
+                        throw new IllegalStateException("Duplicate JWT key id : " + key.getId());
+                    }
+                    jwkList.add(toJwk(key.getId(), publicKey));
+                }
+
+                KeyProperties current = keyProperties.get(0);
+                signingKeyId = current.getId();
+                signer = new AsymmetricSigner(algorithm, readPrivateKey(current.getPrivateKey()));
+                logger.info("JWTs are signed with {} key '{}', {} key(s) accepted", algorithm, signingKeyId, keys.size());
+            }
+        } else {
+            // RSASSA-PSS isn't available in JDK 8 without additional providers
+            throw new IllegalStateException("Unsupported JWT signature algorithm : " + algorithm);
+        }
+
+        verificationKeys = Collections.unmodifiableMap(keys);
+        jwks = Collections.singletonMap("keys", Collections.unmodifiableList(jwkList));
+    }
+
+    @Override
+    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+        // Only configured algorithm is accepted, token can't choose how it is going to be verified
+        if (!algorithm.getValue().equals(header.getAlgorithm())) {
+            throw new SignatureException("Unexpected JWT signature algorithm : " + header.getAlgorithm());
+        }
+
+        String keyId = header.getKeyId();
+        Key key = keyId == null ? defaultKey : verificationKeys.get(keyId);
+        if (key == null) {
+            throw new SignatureException("Unknown JWT key id : " + keyId);
+        }
+        return key;
+    }
+
+    public SignatureAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    public String getSigningKeyId() {
+        return signingKeyId;
+    }
+
+    public JwtSigner getSigner() {
+        return signer;
+    }
+
+    public Map<String, Object> getJwks() {
+        return jwks;
+    }
+
+    // Length of Base64URL encoded signature for algorithms with fixed size signatures (-1 for RSA, size depends on key)
+    public int getEncodedSignatureLength() {
+        int length;
+        if (algorithm.isHmac()) {
+            length = Integer.parseInt(algorithm.getValue().substring(2)) / 8;
+        } else if (algorithm.isEllipticCurve()) {
+            length = EllipticCurveProvider.getSignatureByteArrayLength(algorithm);
+        } else {
+            return -1;
+        }
+        return (length * 4 + 2) / 3;
+    }
+
+    private KeyPair generateKeyPair() throws GeneralSecurityException {
+        if (algorithm.isRsa()) {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            return generator.generateKeyPair();
+        }
+
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec(ellipticCurve().jcaName));
+        return generator.generateKeyPair();
+    }
+
+    private PublicKey readPublicKey(String location) throws GeneralSecurityException, IOException {
+        return keyFactory().generatePublic(new X509EncodedKeySpec(readPem(location)));
+    }
+
+    private PrivateKey readPrivateKey(String location) throws GeneralSecurityException, IOException {
+        return keyFactory().generatePrivate(new PKCS8EncodedKeySpec(readPem(location)));
+    }
+
+    private KeyFactory keyFactory() throws GeneralSecurityException {
+        return KeyFactory.getInstance(algorithm.isRsa() ? "RSA" : "EC");
+    }
+
+    private byte[] readPem(String location) throws IOException {
+        if (location == null) {
+            throw new IllegalStateException("JWT key location missing for " + algorithm + " key");
+        }
+
+        try (InputStream input = resourceLoader.getResource(location).getInputStream()) {
+            // Drop '-----BEGIN/END ...-----' lines, what's left is Base64 encoded DER
+            String pem = StreamUtils.copyToString(input, StandardCharsets.US_ASCII)
+                    .replaceAll("-----[A-Z ]+-----", "");
+            return Base64.getMimeDecoder().decode(pem);
+        }
+    }
+
+    private Map<String, Object> toJwk(String keyId, PublicKey publicKey) {
+        Map<String, Object> jwk = new LinkedHashMap<>();
+        jwk.put("kid", keyId);
+        jwk.put("use", "sig");
+        jwk.put("alg", algorithm.getValue());
+
+        if (publicKey instanceof RSAPublicKey) {
+            RSAPublicKey rsaKey = (RSAPublicKey) publicKey;
+            jwk.put("kty", "RSA");
+            jwk.put("n", encodeUnsigned(rsaKey.getModulus(), 0));
+            jwk.put("e", encodeUnsigned(rsaKey.getPublicExponent(), 0));
+        } else {
+            ECPublicKey ecKey = (ECPublicKey) publicKey;
+            EllipticCurve curve = ellipticCurve();
+            jwk.put("kty", "EC");
+            jwk.put("crv", curve.jwkName);
+            jwk.put("x", encodeUnsigned(ecKey.getW().getAffineX(), curve.coordinateLength));
+            jwk.put("y", encodeUnsigned(ecKey.getW().getAffineY(), curve.coordinateLength));
+        }
+        return Collections.unmodifiableMap(jwk);
+    }
+
+    // JWK integers are unsigned big-endian values, optionally left padded with zeros to fixed length
+    private static String encodeUnsigned(BigInteger value, int length) {
+        byte[] bytes = value.toByteArray();
+        if (bytes.length > 1 && bytes[0] == 0) {
+            bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+        }
+        if (bytes.length < length) {
+            byte[] padded = new byte[length];
+            System.arraycopy(bytes, 0, padded, length - bytes.length, bytes.length);
+            bytes = padded;
+        }
+        return BASE64_URL_ENCODER.encodeToString(bytes);
+    }
+
+    private EllipticCurve ellipticCurve() {
+        switch (algorithm) {
+            case ES256:
+                return EllipticCurve.P256;
+            case ES384:
+                return EllipticCurve.P384;
+            default:
+                return EllipticCurve.P521;
+        }
+    }
+
+    private enum EllipticCurve {
+        P256("secp256r1", "P-256", 32), P384("secp384r1", "P-384", 48), P521("secp521r1", "P-521", 66);
+
+        private final String jcaName;
+        private final String jwkName;
+        private final int coordinateLength;
+
+        EllipticCurve(String jcaName, String jwkName, int coordinateLength) {
+            this.jcaName = jcaName;
+            this.jwkName = jwkName;
+            this.coordinateLength = coordinateLength;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.hcrnjak.config.security.jwt;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+
+@Component
+@ConfigurationProperties(prefix = "jwt.signature")
+public class JwtSignatureProperties {
+
+    private SignatureAlgorithm algorithm = SignatureAlgorithm.HS256;
+
+    // First key signs new tokens, the rest only verify tokens signed before key rotation
+    private List<KeyProperties> keys = new ArrayList<>();
+
+    public SignatureAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    public void setAlgorithm(SignatureAlgorithm algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    public List<KeyProperties> getKeys() {
+        return keys;
+    }
+
+    public void setKeys(List<KeyProperties> keys) {
+        this.keys = keys;
+    }
+
+    public static class KeyProperties {
+
+        private String id;
+
+        // Resource locations of PEM encoded keys (PKCS#8 private key, X.509 public key)
+        private String privateKey;
+        private String publicKey;
+
+        public String getId() {
+            return id;
+        }
+
+        public void setId(String id) {
+            this.id = id;
+        }
+
+        public String getPrivateKey() {
+            return privateKey;
+        }
+
+        public void setPrivateKey(String privateKey) {
+            this.privateKey = privateKey;
+        }
+
+        public String getPublicKey() {
+            return publicKey;
+        }
+
+        public void setPublicKey(String publicKey) {
+            this.publicKey = publicKey;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.hcrnjak.config.security.jwt;
+
+public interface JwtSigner {
+
+    // Returns JWS signature of given data (JWS signing input is 'base64url(header).base64url(payload)')
+    byte[] sign(byte[] data);
+}
@@ -1,34 +1,55 @@
 package com.hcrnjak.config.security.jwt;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
-import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
-import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hcrnjak.config.security.authentication.AuthenticatedUser;
+import com.hcrnjak.config.security.authentication.RoleAuthorities;
+import com.hcrnjak.config.security.authentication.UserStateRegistry;
+import com.hcrnjak.config.security.metrics.AuthenticationMetrics;
+import com.hcrnjak.config.security.revocation.TokenRevocationList;
 
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.PrematureJwtException;
+import io.jsonwebtoken.SignatureException;
 
 @Service
 public class JwtTokenHandler {
 
     private final Logger logger = LogManager.getLogger(JwtTokenHandler.class);
 
-    @Value("${jwt.secret}")
-    private String secret;
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final Base64.Encoder BASE64_URL_ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    @Value("${jwt.maxTokenLength}")
+    private int maxTokenLength;
 
     @Value("${jwt.expiration}")
     private Long expiration;
@@ -36,156 +57,310 @@ public class JwtTokenHandler {
     @Value("${jwt.claim.userAuthorities}")
     private String userAuthoritiesClaimKey;
 
+    @Value("${jwt.claim.compactAuthorities}")
+    private boolean compactAuthorities;
+
     @Value("${jwt.claim.userId}")
     private String userIdClaimKey;
 
+    @Value("${jwt.claim.userVersion}")
+    private String userVersionClaimKey;
+
+    @Value("${jwt.clock.allowedSkew}")
+    private long allowedClockSkew;
+
+    @Value("${jwt.verifier}")
+    private String verifier;
+
+    @Value("${jwt.logging.rejectedTokensPerSecond}")
+    private int rejectedTokensLoggedPerSecond;
+
     @Value("${app.name}")
     private String appName;
 
+    @Autowired
+    private TokenClock clock;
 
-    public String generateToken(AuthenticatedUser user) {
-        // Generate private claims
-        Map<String, Object> privateClaims = new HashMap<>();
-        privateClaims.put(userIdClaimKey, user.getId());
-        privateClaims.put(userAuthoritiesClaimKey, user.getAuthorities());
-
-        return Jwts.builder()
-                // Add private claims (this needs to come first or it will override everything else)
-                .setClaims(privateClaims)
-
-                // Random ID generated
-                .setId(UUID.randomUUID().toString())
-
-                // App is the issuer and also intended audience. User is principal subject
-                .setIssuer(appName)
-                .setAudience(appName)
-                .setSubject(user.getUsername())
-
-                // Setup timestamp and validity
-                .setIssuedAt(new Date())
-                .setNotBefore(new Date())
-                .setExpiration(generateExpirationDate())
-
-                // Sign and generate token
-                .signWith(SignatureAlgorithm.HS256, secret)
-                .compact();
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @Autowired
+    private JwtKeySet jwtKeySet;
+
+    @Autowired
+    private TokenRevocationList tokenRevocationList;
+
+    @Autowired
+    private AuthenticationMetrics authenticationMetrics;
+
+    @Autowired
+    private UserStateRegistry userStateRegistry;
+
+    private JwtSigner signer;
+    private JwtParser jwtParser;
+    private String encodedHeader;
+    private TokenPrecheck precheck;
+    private RawHmacTokenVerifier rawVerifier;
+    private LogRateLimiter rejectionLogLimiter;
+
+
+    @PostConstruct
+    public void init() {
+        // Key material is loaded once by key set, signer keeps pre-initialized signature instances
+        signer = jwtKeySet.getSigner();
+
+        // Configured parser holds no per-parse state, so it's safe to share between threads.
+        // Verification key is picked by 'kid' header from key set, 'nbf' and 'exp' are checked against the app's clock
+        jwtParser = Jwts.parser()
+                .setSigningKeyResolver(jwtKeySet)
+                .setClock(() -> new Date(clock.currentTimeMillis()))
+                .setAllowedClockSkewSeconds(allowedClockSkew);
+
+        // Header never changes (key rotation requires restart), encode it only once
+        Map<String, Object> header = new LinkedHashMap<>();
+        header.put(JwsHeader.ALGORITHM, jwtKeySet.getAlgorithm().getValue());
+        if (jwtKeySet.getSigningKeyId() != null) {
+            header.put(JwsHeader.KEY_ID, jwtKeySet.getSigningKeyId());
+        }
+        encodedHeader = encode(header) + '.';
+        precheck = new TokenPrecheck(maxTokenLength, jwtKeySet.getEncodedSignatureLength(),
+                jwtKeySet.getAlgorithm().getValue());
+        rejectionLogLimiter = new LogRateLimiter(rejectedTokensLoggedPerSecond);
+
+        // Raw verifier handles only tokens with the header issued above, anything else still goes through jjwt
+        if ("raw".equals(verifier)) {
+            if (!(signer instanceof HmacSigner)) {
+                throw new IllegalStateException("Raw JWT verifier supports HMAC algorithms only, not " + jwtKeySet.getAlgorithm());
+            }
+            rawVerifier = new RawHmacTokenVerifier((HmacSigner) signer, encodedHeader, allowedClockSkew * 1000,
+                    userIdClaimKey, userAuthoritiesClaimKey, userVersionClaimKey);
+        } else if (!"jjwt".equals(verifier)) {
+            throw new IllegalStateException("Unknown JWT verifier : " + verifier);
+        }
     }
 
-    private Date generateExpirationDate() {
-        return new Date(System.currentTimeMillis() + expiration * 1000);
+    public String generateToken(AuthenticatedUser user) {
+        long start = System.nanoTime();
+        long now = clock.currentTimeMillis() / 1000;
+
+        Map<String, Object> claims = new LinkedHashMap<>();
+        // Private claims
+        claims.put(userIdClaimKey, user.getId());
+        claims.put(userAuthoritiesClaimKey, encodeAuthorities(user.getAuthorities()));
+        if (user.getVersion() != null) {
+            claims.put(userVersionClaimKey, user.getVersion());
+        }
+
+        // Random ID generated
+        claims.put(Claims.ID, UUID.randomUUID().toString());
+
+        // App is the issuer and also intended audience. User is principal subject
+        claims.put(Claims.ISSUER, appName);
+        claims.put(Claims.AUDIENCE, appName);
+        claims.put(Claims.SUBJECT, user.getUsername());
+
+        // Setup timestamp and validity (in seconds since epoch)
+        claims.put(Claims.ISSUED_AT, now);
+        claims.put(Claims.NOT_BEFORE, now);
+        claims.put(Claims.EXPIRATION, now + expiration);
+
+        // Sign and generate token
+        String unsignedToken = encodedHeader + encode(claims);
+        byte[] signature = signer.sign(unsignedToken.getBytes(StandardCharsets.US_ASCII));
+        String token = unsignedToken + '.' + BASE64_URL_ENCODER.encodeToString(signature);
+        authenticationMetrics.getTokenGeneration().recordSince(start);
+        return token;
     }
 
+    private Object encodeAuthorities(Collection<? extends GrantedAuthority> authorities) {
+        // Roles are encoded as a single number, authorities which aren't roles fall back to a list of authority objects
+        int bitmask = compactAuthorities ? RoleAuthorities.toBitmask(authorities) : -1;
+        return bitmask >= 0 ? bitmask : authorities;
+    }
 
-    public Boolean isTokenValid(String token) {
+    private static String encode(Map<String, Object> json) {
         try {
-            // Check JWT signature and audience
-            Jws<Claims> jwt =  Jwts.parser()
-                    .setSigningKey(secret)
-                    .requireAudience(appName)
-                    .parseClaimsJws(token);
-
-            // Make sure JWT is still valid  (notBefore < now < expiration)
-            return jwt.getBody().getNotBefore().before(new Date()) && jwt.getBody().getExpiration().after(new Date());
-        } catch (Exception ex) {
-            logger.error("JWT not properly signed or with wrong audience : " + token);
-            return false;
+            return BASE64_URL_ENCODER.encodeToString(OBJECT_MAPPER.writeValueAsBytes(json));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Unable to serialize JWT", ex);
         }
     }
 
-    public AuthenticatedUser parseToken(String token) {
-        // First, validate token
-        if (!isTokenValid(token)) {
-            throw new IllegalArgumentException("JWT not valid : " + token);
+
+    public TokenVerificationResult verifyToken(String token) {
+        long start = System.nanoTime();
+        try {
+            return verify(token);
+        } finally {
+            authenticationMetrics.getTokenVerification().recordSince(start);
         }
+    }
 
-        // Extract claims
-        Jws<Claims> jwt =  Jwts.parser().setSigningKey(secret).parseClaimsJws(token);
-        Claims claims = jwt.getBody();
+    private TokenVerificationResult verify(String token) {
+        // Junk is rejected before it costs a digest, a cache lookup or parsing
+        TokenVerificationFailure malformed = precheck.check(token);
+        if (malformed != null) {
+            return reject(token, malformed);
+        }
 
-        // Build User from JWT
-        Set<GrantedAuthority> grantedAuthorities = (Set<GrantedAuthority>)((List)claims.get(userAuthoritiesClaimKey)).stream()
-                .map(elem -> ((Map)elem).get("authority"))
-                .map(authority -> new SimpleGrantedAuthority((String)authority))
-                .collect(Collectors.toSet());
+        long now = clock.currentTimeMillis();
+        TokenVerificationResult result;
+        if (verifiedTokenCache.isEnabled()) {
+            // Same token was already verified and it's still not expired, or it was recently rejected
+            VerifiedTokenCache.Key key = verifiedTokenCache.keyFor(token);
+            result = verifiedTokenCache.get(key, now);
+            if (result == null) {
+                result = parseAndVerify(token, key, now);
+                // Tokens which aren't valid yet will be soon, any other failure is final
+                if (!result.isValid() && result.getFailure() != TokenVerificationFailure.NOT_YET_VALID) {
+                    verifiedTokenCache.putRejected(key, result.getFailure());
+                }
+            } else if (!result.isValid()) {
+                return reject(token, result.getFailure());
+            }
+        } else {
+            result = parseAndVerify(token, null, now);
+        }
 
-        AuthenticatedUser user = new AuthenticatedUser(Long.valueOf((Integer)claims.get(userIdClaimKey)), claims.getSubject(),
-                null, null, grantedAuthorities, true);
+        // Token may have been revoked after it was cached, so this is checked on each request
+        if (result.isValid() && tokenRevocationList.isRevoked(result.getTokenId(), result.getUser().getId(), result.getIssuedAt())) {
+            return reject(token, TokenVerificationFailure.REVOKED);
+        }
 
-        return user;
+        // User may have been disabled or changed since the token was issued (opt-in, costs a map lookup)
+        if (result.isValid() && userStateRegistry.isEnabled()) {
+            AuthenticatedUser user = result.getUser();
+            TokenVerificationFailure failure = userStateRegistry.check(user.getId(), user.getVersion());
+            if (failure != null) {
+                return reject(token, failure);
+            }
+        }
+        return result;
     }
 
-    /*public String getUsernameFromToken(String token) {
-        String username;
-        try {
-            final Claims claims = getClaimsFromToken(token);
-            username = claims.getSubject();
-        } catch (Exception e) {
-            username = null;
+    private TokenVerificationResult parseAndVerify(String token, VerifiedTokenCache.Key cacheKey, long now) {
+        TokenClaims claims = new TokenClaims();
+        TokenVerificationFailure failure = rawVerifier != null && rawVerifier.accepts(token)
+                ? rawVerifier.verify(token, claims, now)
+                : parse(token, claims);
+        if (failure != null) {
+            return reject(token, failure);
         }
-        return username;
-    }
 
-    public Date getCreatedDateFromToken(String token) {
-        Date created;
-        try {
-            final Claims claims = getClaimsFromToken(token);
-            created = new Date((Long) claims.get(CLAIM_KEY_CREATED));
-        } catch (Exception e) {
-            created = null;
+        // Tokens are always issued with ID, timestamp and validity window, missing one means it wasn't issued by us
+        if (claims.issuedAt == null || claims.expiresAt == null || claims.notBefore == null || claims.id == null) {
+            return reject(token, TokenVerificationFailure.MALFORMED);
         }
-        return created;
-    }
 
-    public Date getExpirationDateFromToken(String token) {
-        Date expiration;
-        try {
-            final Claims claims = getClaimsFromToken(token);
-            expiration = claims.getExpiration();
-        } catch (Exception e) {
-            expiration = null;
+        // App is the intended audience
+        if (!appName.equals(claims.audience)) {
+            return reject(token, TokenVerificationFailure.WRONG_AUDIENCE);
+        }
+
+        // Build User from JWT
+        Set<GrantedAuthority> grantedAuthorities = decodeAuthorities(claims);
+        if (claims.userId == null || grantedAuthorities == null) {
+            return reject(token, TokenVerificationFailure.MALFORMED);
+        }
+
+        AuthenticatedUser user = new AuthenticatedUser(claims.userId, claims.subject, null, null, grantedAuthorities, true,
+                claims.userVersion);
+
+        TokenVerificationResult result = TokenVerificationResult.valid(user, claims.id, claims.issuedAt, claims.expiresAt);
+        if (cacheKey != null) {
+            // Cached as long as verification would accept it, including clock skew
+            verifiedTokenCache.put(cacheKey, result, (result.getExpiresAt() + allowedClockSkew) * 1000);
         }
-        return expiration;
+        return result;
     }
 
-    private Claims getClaimsFromToken(String token) {
+    private TokenVerificationFailure parse(String token, TokenClaims tokenClaims) {
+        // Check JWT signature, notBefore and expiration in a single parse (jjwt validates 'nbf' and 'exp' while parsing)
         Claims claims;
         try {
-            claims = Jwts.parser()
-                    .setSigningKey(secret)
-                    .parseClaimsJws(token)
-                    .getBody();
-        } catch (Exception e) {
-            claims = null;
-        }
-        return claims;
+            claims = jwtParser.parseClaimsJws(token).getBody();
+        } catch (SignatureException ex) {
+            return TokenVerificationFailure.BAD_SIGNATURE;
+        } catch (ExpiredJwtException ex) {
+            return TokenVerificationFailure.EXPIRED;
+        } catch (PrematureJwtException ex) {
+            return TokenVerificationFailure.NOT_YET_VALID;
+        } catch (JwtException | IllegalArgumentException | ClassCastException ex) {
+            return TokenVerificationFailure.MALFORMED;
+        }
+
+        tokenClaims.id = claims.getId();
+        tokenClaims.subject = claims.getSubject();
+        tokenClaims.audience = claims.getAudience();
+        tokenClaims.issuedAt = asLong(claims.get(Claims.ISSUED_AT));
+        tokenClaims.notBefore = asLong(claims.get(Claims.NOT_BEFORE));
+        tokenClaims.expiresAt = asLong(claims.get(Claims.EXPIRATION));
+        tokenClaims.userId = asLong(claims.get(userIdClaimKey));
+        tokenClaims.userVersion = asLong(claims.get(userVersionClaimKey));
+
+        Object authorities = claims.get(userAuthoritiesClaimKey);
+        if (authorities instanceof List) {
+            tokenClaims.authorityNames = authorityNames((List<?>) authorities);
+        } else {
+            tokenClaims.authorityBits = asLong(authorities);
+        }
+        return null;
     }
 
-    private Boolean isTokenExpired(String token) {
-        final Date expiration = getExpirationDateFromToken(token);
-        return expiration.before(new Date());
+    private static Long asLong(Object value) {
+        return value instanceof Integer || value instanceof Long ? ((Number) value).longValue() : null;
     }
-    */
 
-   /*
+    // Authorities are serialized as {"authority" : "ROLE_X"}, returns null for anything else
+    private static List<String> authorityNames(List<?> authorities) {
+        List<String> names = new ArrayList<>(authorities.size());
+        for (Object authority : authorities) {
+            Object name = authority instanceof Map ? ((Map<?, ?>) authority).get("authority") : null;
+            if (!(name instanceof String)) {
+                return null;
+            }
+            names.add((String) name);
+        }
+        return names;
+    }
+
+    private TokenVerificationResult reject(String token, TokenVerificationFailure failure) {
+        authenticationMetrics.recordRejectedToken(failure);
 
-    private Boolean isCreatedBeforeLastPasswordReset(Date created, Date lastPasswordReset) {
-        return (lastPasswordReset != null && created.before(lastPasswordReset));
+        // Floods of invalid tokens would flood the log as well, so only some of them are logged
+        long suppressed = rejectionLogLimiter.tryAcquire();
+        if (suppressed == 0 && logger.isWarnEnabled()) {
+            logger.warn("JWT {} rejected : {}", TokenFingerprint.of(token), failure);
+        } else if (suppressed > 0 && logger.isWarnEnabled()) {
+            logger.warn("JWT {} rejected : {} ({} rejections not logged since the previous one)",
+                    TokenFingerprint.of(token), failure, suppressed);
+        }
+        return TokenVerificationResult.invalid(failure);
     }
 
-   public Boolean canTokenBeRefreshed(String token, Date lastPasswordReset) {
-        final Date created = getCreatedDateFromToken(token);
-        return !isCreatedBeforeLastPasswordReset(created, lastPasswordReset) && !isTokenExpired(token);
+    // Both encodings are accepted, so tokens issued before switching 'jwt.claim.compactAuthorities' stay valid
+    private Set<GrantedAuthority> decodeAuthorities(TokenClaims claims) {
+        if (claims.authorityBits != null) {
+            return RoleAuthorities.fromBitmask(claims.authorityBits);
+        }
+        if (claims.authorityNames != null) {
+            return mapToGrantedAuthorities(claims.authorityNames);
+        }
+        return null;
     }
 
-    public String refreshToken(String token) {
-        String refreshedToken;
-        try {
-            final Claims claims = getClaimsFromToken(token);
-            claims.put(CLAIM_KEY_CREATED, new Date());
-            refreshedToken = generateToken(claims);
-        } catch (Exception e) {
-            refreshedToken = null;
-        }
-        return refreshedToken;
-    }*/
+    private Set<GrantedAuthority> mapToGrantedAuthorities(List<String> authorities) {
+        Set<GrantedAuthority> grantedAuthorities = new HashSet<>(authorities.size() * 2);
+        for (String authority : authorities) {
+            grantedAuthorities.add(new SimpleGrantedAuthority(authority));
+        }
+
+        // Roles only, share the canonical set instead of keeping a copy per token
+        int roles = RoleAuthorities.toBitmask(grantedAuthorities);
+        if (roles >= 0) {
+            return RoleAuthorities.fromBitmask(roles);
+        }
+        // Verified users may be cached and shared between requests
+        return Collections.unmodifiableSet(grantedAuthorities);
+    }
 }
@@ -0,0 +1,38 @@
+package com.hcrnjak.config.security.jwt;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free limiter for log messages : at most given number of messages per second is let through, the rest are only
+ * counted. Once over the limit, suppressing a message is a read of a shared counter plus a LongAdder increment.
+ **/
+class LogRateLimiter {
+
+    private final int permitsPerSecond;
+
+    private final AtomicLong currentSecond = new AtomicLong();
+    private final AtomicInteger permitsUsed = new AtomicInteger();
+    private final LongAdder suppressed = new LongAdder();
+
+    LogRateLimiter(int permitsPerSecond) {
+        this.permitsPerSecond = permitsPerSecond;
+    }
+
+    // Returns -1 if the message should be suppressed, otherwise number of messages suppressed since the previous one
+    long tryAcquire() {
+        long second = System.currentTimeMillis() / 1000;
+        long previousSecond = currentSecond.get();
+        if (second != previousSecond && currentSecond.compareAndSet(previousSecond, second)) {
+            permitsUsed.set(0);
+        }
+
+        if (permitsUsed.get() >= permitsPerSecond || permitsUsed.incrementAndGet() > permitsPerSecond) {
+            suppressed.increment();
+            return -1;
+        }
+        // Messages suppressed concurrently with reset may be counted in the next report, which is fine for logging
+        return suppressed.sumThenReset();
+    }
+}
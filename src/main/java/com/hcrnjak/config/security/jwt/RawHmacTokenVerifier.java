@@ -0,0 +1,191 @@
+package com.hcrnjak.config.security.jwt;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import io.jsonwebtoken.Claims;
+
+/**
+ * Verifies HMAC signed tokens without jjwt. HMAC is computed over raw ASCII bytes of 'header.payload' and compared in
+ * constant time before anything is decoded, so a forged token never reaches a JSON parser. Only then the payload is
+ * read with a streaming parser, picking the claims the app uses instead of building a claims Map.
+ * Only tokens with exactly the header issued by this app are handled (see accepts()), anything else is left to jjwt.
+ **/
+final class RawHmacTokenVerifier {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    // Signing input, signature and payload are all decoded here. Buffer only grows up to 'jwt.maxTokenLength'
+    private static final ThreadLocal<byte[][]> BUFFER = ThreadLocal.withInitial(() -> new byte[][] {new byte[512]});
+
+    private static final String AUTHORITY_FIELD = "authority";
+
+    private final HmacSigner signer;
+    // Base64url header issued by this app, including '.' separating it from payload
+    private final String encodedHeader;
+    private final long allowedClockSkew;
+    private final String userIdClaimKey;
+    private final String userAuthoritiesClaimKey;
+    private final String userVersionClaimKey;
+
+    // Clock skew in milliseconds
+    RawHmacTokenVerifier(HmacSigner signer, String encodedHeader, long allowedClockSkew, String userIdClaimKey,
+            String userAuthoritiesClaimKey, String userVersionClaimKey) {
+        this.signer = signer;
+        this.encodedHeader = encodedHeader;
+        this.allowedClockSkew = allowedClockSkew;
+        this.userIdClaimKey = userIdClaimKey;
+        this.userAuthoritiesClaimKey = userAuthoritiesClaimKey;
+        this.userVersionClaimKey = userVersionClaimKey;
+    }
+
+    boolean accepts(String token) {
+        return token.startsWith(encodedHeader);
+    }
+
+    /**
+     * Token must have passed TokenPrecheck (three base64url segments). Returns null and fills in claims if the token is
+     * valid at 'now' (epoch milliseconds).
+     **/
+    TokenVerificationFailure verify(String token, TokenClaims claims, long now) {
+        int signatureStart = token.lastIndexOf('.') + 1;
+        int signedLength = signatureStart - 1;
+        byte[] buffer = buffer(token.length());
+
+        // Signing input is base64url and '.', so chars are bytes
+        for (int i = 0; i < signedLength; i++) {
+            buffer[i] = (byte) token.charAt(i);
+        }
+        // Signature decodes to fewer bytes than it has characters, so it fits in the buffer right after the signing input
+        int signatureLength = Base64Url.decode(token, signatureStart, token.length(), buffer, signedLength);
+        if (signatureLength < 0 || !signer.verify(buffer, 0, signedLength,
+                Arrays.copyOfRange(buffer, signedLength, signedLength + signatureLength))) {
+            return TokenVerificationFailure.BAD_SIGNATURE;
+        }
+
+        int payloadLength = Base64Url.decode(token, encodedHeader.length(), signedLength, buffer, 0);
+        if (payloadLength < 0 || !read(buffer, payloadLength, claims)) {
+            return TokenVerificationFailure.MALFORMED;
+        }
+
+        // Same rules as jjwt : expired after 'exp', premature before 'nbf', both give or take clock skew
+        if (claims.expiresAt != null && now - allowedClockSkew > claims.expiresAt * 1000) {
+            return TokenVerificationFailure.EXPIRED;
+        }
+        if (claims.notBefore != null && now + allowedClockSkew < claims.notBefore * 1000) {
+            return TokenVerificationFailure.NOT_YET_VALID;
+        }
+        return null;
+    }
+
+    private static byte[] buffer(int length) {
+        byte[][] holder = BUFFER.get();
+        if (holder[0].length < length) {
+            holder[0] = new byte[Math.max(length, holder[0].length * 2)];
+        }
+        return holder[0];
+    }
+
+    private boolean read(byte[] json, int length, TokenClaims claims) {
+        try (JsonParser parser = JSON_FACTORY.createParser(json, 0, length)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return false;
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                switch (name) {
+                    case Claims.ID:
+                        claims.id = readString(parser, value);
+                        break;
+                    case Claims.SUBJECT:
+                        claims.subject = readString(parser, value);
+                        break;
+                    case Claims.AUDIENCE:
+                        claims.audience = readString(parser, value);
+                        break;
+                    case Claims.ISSUED_AT:
+                        claims.issuedAt = readLong(parser, value);
+                        break;
+                    case Claims.NOT_BEFORE:
+                        claims.notBefore = readLong(parser, value);
+                        break;
+                    case Claims.EXPIRATION:
+                        claims.expiresAt = readLong(parser, value);
+                        break;
+                    default:
+                        // Private claim names are configurable, so they can't be switch cases
+                        if (name.equals(userIdClaimKey)) {
+                            claims.userId = readLong(parser, value);
+                        } else if (name.equals(userVersionClaimKey)) {
+                            claims.userVersion = readLong(parser, value);
+                        } else if (name.equals(userAuthoritiesClaimKey)) {
+                            if (value == JsonToken.START_ARRAY) {
+                                claims.authorityNames = readAuthorityNames(parser);
+                            } else {
+                                claims.authorityBits = readLong(parser, value);
+                            }
+                        } else {
+                            parser.skipChildren();
+                        }
+                }
+            }
+            return parser.getCurrentToken() == JsonToken.END_OBJECT;
+        } catch (IOException ex) {
+            // Not JSON, or a number out of range
+            return false;
+        }
+    }
+
+    private static String readString(JsonParser parser, JsonToken value) throws IOException {
+        // jjwt turns any scalar into String as well
+        if (value.isScalarValue()) {
+            return parser.getValueAsString();
+        }
+        parser.skipChildren();
+        return null;
+    }
+
+    private static Long readLong(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_NUMBER_INT) {
+            return parser.getLongValue();
+        }
+        parser.skipChildren();
+        return null;
+    }
+
+    // Authorities are serialized as [{"authority" : "ROLE_X"}, ...], returns null for anything else
+    private static List<String> readAuthorityNames(JsonParser parser) throws IOException {
+        List<String> names = new ArrayList<>();
+        boolean valid = true;
+        JsonToken element;
+        while ((element = parser.nextToken()) != JsonToken.END_ARRAY) {
+            String name = null;
+            if (element == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    JsonToken value = parser.nextToken();
+                    if (AUTHORITY_FIELD.equals(parser.getCurrentName()) && value == JsonToken.VALUE_STRING) {
+                        name = parser.getText();
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+
+            if (name == null) {
+                valid = false;
+            }
+            names.add(name);
+        }
+        return valid ? names : null;
+    }
+}
@@ -0,0 +1,26 @@
+package com.hcrnjak.config.security.jwt;
+
+import java.util.List;
+
+/**
+ * Claims the app reads from its tokens, as a flat object filled in by either verification engine. Missing claims (or
+ * claims of an unexpected type) are left null.
+ **/
+final class TokenClaims {
+
+    String id;
+    String subject;
+    String audience;
+
+    // Epoch seconds
+    Long issuedAt;
+    Long notBefore;
+    Long expiresAt;
+
+    Long userId;
+    Long userVersion;
+
+    // Role bitmask, or names of authorities (see 'jwt.claim.compactAuthorities')
+    Long authorityBits;
+    List<String> authorityNames;
+}
@@ -0,0 +1,11 @@
+package com.hcrnjak.config.security.jwt;
+
+/**
+ * Source of current time for issuing and validating tokens. Replaceable, so expiry can be simulated without waiting.
+ **/
+@FunctionalInterface
+public interface TokenClock {
+
+    // Epoch milliseconds
+    long currentTimeMillis();
+}
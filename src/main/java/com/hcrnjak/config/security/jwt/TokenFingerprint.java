@@ -0,0 +1,38 @@
+package com.hcrnjak.config.security.jwt;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Short, non-reversible identifier of a token (first 8 bytes of its SHA-256 hash, hex encoded). It's used instead of the
+ * token itself in logs, so log lines of the same token can be correlated without logging a credential.
+ **/
+public final class TokenFingerprint {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final int LENGTH = 8;
+
+    private TokenFingerprint() {
+    }
+
+    public static String of(String token) {
+        if (token == null) {
+            return "none";
+        }
+
+        byte[] hash;
+        try {
+            hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not supported by JVM", ex);
+        }
+
+        char[] fingerprint = new char[LENGTH * 2];
+        for (int i = 0; i < LENGTH; i++) {
+            fingerprint[i * 2] = HEX[(hash[i] >> 4) & 0xF];
+            fingerprint[i * 2 + 1] = HEX[hash[i] & 0xF];
+        }
+        return new String(fingerprint);
+    }
+}
@@ -0,0 +1,87 @@
+package com.hcrnjak.config.security.jwt;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Cheap structural checks done before a token is decoded, parsed or its signature verified : length cap, three
+ * base64url segments, signature length and 'alg' header. Junk is rejected without allocating or throwing exceptions,
+ * so floods of garbage tokens can't make the app spend CPU on JSON parsing and exception construction.
+ **/
+final class TokenPrecheck {
+
+    // Longest accepted header segment, issued headers are well below 100 characters
+    private static final int MAX_HEADER_LENGTH = 256;
+
+    // Header is decoded here, not into a new array
+    private static final ThreadLocal<byte[]> HEADER_BUFFER =
+            ThreadLocal.withInitial(() -> new byte[Base64Url.decodedLength(MAX_HEADER_LENGTH)]);
+
+    private final int maxLength;
+    private final int signatureLength;
+    private final byte[] algorithmMember;
+
+    /**
+     * @param signatureLength length of encoded signature, -1 if it isn't fixed for the algorithm
+     **/
+    TokenPrecheck(int maxLength, int signatureLength, String algorithm) {
+        this.maxLength = maxLength;
+        this.signatureLength = signatureLength;
+        // Headers are serialized without whitespace, by this app and by jjwt
+        this.algorithmMember = ("\"alg\":\"" + algorithm + '"').getBytes(StandardCharsets.US_ASCII);
+    }
+
+    // Returns null if token may be valid
+    TokenVerificationFailure check(String token) {
+        int length = token.length();
+        if (length > maxLength) {
+            return TokenVerificationFailure.MALFORMED;
+        }
+
+        // header.payload.signature, all non-empty and base64url encoded
+        int firstDot = -1;
+        int secondDot = -1;
+        for (int i = 0; i < length; i++) {
+            char c = token.charAt(i);
+            if (c == '.') {
+                if (firstDot < 0) {
+                    firstDot = i;
+                } else if (secondDot < 0) {
+                    secondDot = i;
+                } else {
+                    return TokenVerificationFailure.MALFORMED;
+                }
+            } else if (!Base64Url.isValid(c)) {
+                return TokenVerificationFailure.MALFORMED;
+            }
+        }
+        if (firstDot <= 0 || secondDot <= firstDot + 1 || secondDot == length - 1 || firstDot > MAX_HEADER_LENGTH) {
+            return TokenVerificationFailure.MALFORMED;
+        }
+
+        // jjwt also ignores trailing bytes of ECDSA signatures, so signature length must be checked anyway
+        if (signatureLength > 0 && length - secondDot - 1 != signatureLength) {
+            return TokenVerificationFailure.BAD_SIGNATURE;
+        }
+
+        // Only configured algorithm is accepted
+        byte[] header = HEADER_BUFFER.get();
+        int headerLength = Base64Url.decode(token, 0, firstDot, header, 0);
+        if (headerLength < 0) {
+            return TokenVerificationFailure.MALFORMED;
+        }
+        return contains(header, headerLength, algorithmMember) ? null : TokenVerificationFailure.BAD_SIGNATURE;
+    }
+
+    private static boolean contains(byte[] bytes, int length, byte[] value) {
+        for (int start = 0; start <= length - value.length; start++) {
+            int i = 0;
+            while (i < value.length && bytes[start + i] == value[i]) {
+                i++;
+            }
+            if (i == value.length) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,7 @@
+package com.hcrnjak.config.security.jwt;
+
+public enum TokenVerificationFailure {
+    MALFORMED, BAD_SIGNATURE, WRONG_AUDIENCE, NOT_YET_VALID, EXPIRED, REVOKED,
+    // Live User check : User disabled (or deleted), or changed since token was issued
+    USER_DISABLED, USER_CHANGED
+}
@@ -0,0 +1,67 @@
+package com.hcrnjak.config.security.jwt;
+
+import java.io.Serializable;
+
+import com.hcrnjak.config.security.authentication.AuthenticatedUser;
+
+public final class TokenVerificationResult implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    // Failed results carry no state, so one shared instance per reason is enough
+    private static final TokenVerificationResult[] FAILURES = new TokenVerificationResult[TokenVerificationFailure.values().length];
+
+    static {
+        for (TokenVerificationFailure failure : TokenVerificationFailure.values()) {
+            FAILURES[failure.ordinal()] = new TokenVerificationResult(null, null, 0, 0, failure);
+        }
+    }
+
+    private final AuthenticatedUser user;
+    private final String tokenId;
+    private final long issuedAt;
+    private final long expiresAt;
+    private final TokenVerificationFailure failure;
+
+    private TokenVerificationResult(AuthenticatedUser user, String tokenId, long issuedAt, long expiresAt,
+            TokenVerificationFailure failure) {
+        this.user = user;
+        this.tokenId = tokenId;
+        this.issuedAt = issuedAt;
+        this.expiresAt = expiresAt;
+        this.failure = failure;
+    }
+
+    // Timestamps are in epoch seconds, same as in token claims
+    public static TokenVerificationResult valid(AuthenticatedUser user, String tokenId, long issuedAt, long expiresAt) {
+        return new TokenVerificationResult(user, tokenId, issuedAt, expiresAt, null);
+    }
+
+    public static TokenVerificationResult invalid(TokenVerificationFailure failure) {
+        return FAILURES[failure.ordinal()];
+    }
+
+    public boolean isValid() {
+        return failure == null;
+    }
+
+    public AuthenticatedUser getUser() {
+        return user;
+    }
+
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    public long getIssuedAt() {
+        return issuedAt;
+    }
+
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public TokenVerificationFailure getFailure() {
+        return failure;
+    }
+}
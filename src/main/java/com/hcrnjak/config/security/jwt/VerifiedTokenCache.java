@@ -0,0 +1,253 @@
+package com.hcrnjak.config.security.jwt;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps already verified tokens so clients reusing the same bearer token don't pay for signature checks and claims parsing
+ * on every request. Entries are keyed by SHA-256 digest of the raw token (raw tokens are never held in memory) and are
+ * never returned after token's 'exp' claim. Cache size is bounded by 'jwt.cache.maxEntries'.
+ * Rejected tokens are kept separately for 'jwt.cache.rejected.ttl', so clients retrying a bad token get a cheap rejection.
+ **/
+@Component
+public class VerifiedTokenCache {
+
+    private final Logger logger = LogManager.getLogger(VerifiedTokenCache.class);
+
+    private static final ThreadLocal<TokenDigest> DIGEST = ThreadLocal.withInitial(TokenDigest::new);
+
+    @Value("${jwt.cache.enabled}")
+    private boolean enabled;
+
+    @Value("${jwt.cache.maxEntries}")
+    private int maxEntries;
+
+    @Value("${jwt.cache.rejected.maxEntries}")
+    private int maxRejectedEntries;
+
+    @Value("${jwt.cache.rejected.ttl}")
+    private long rejectedTtl;
+
+    @Autowired
+    private TokenClock clock;
+
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<Key, Entry> rejected = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder rejectedHits = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Key keyFor(String token) {
+        return new Key(DIGEST.get().digest(token));
+    }
+
+    // Returns verified token, or the reason it was recently rejected for
+    public TokenVerificationResult get(Key key, long now) {
+        TokenVerificationResult result = get(entries, key, now);
+        if (result != null) {
+            hits.increment();
+            return result;
+        }
+
+        result = get(rejected, key, now);
+        if (result != null) {
+            rejectedHits.increment();
+            return result;
+        }
+
+        misses.increment();
+        return null;
+    }
+
+    private TokenVerificationResult get(Map<Key, Entry> map, Key key, long now) {
+        Entry entry = map.get(key);
+        if (entry == null) {
+            return null;
+        }
+
+        // Token expired since it was cached, it must go through full verification (and fail)
+        if (entry.expiresAt <= now) {
+            if (map.remove(key, entry)) {
+                evictions.increment();
+            }
+            return null;
+        }
+        return entry.result;
+    }
+
+    public void put(Key key, TokenVerificationResult result, long expiresAt) {
+        put(entries, maxEntries, key, new Entry(result, expiresAt));
+    }
+
+    public void putRejected(Key key, TokenVerificationFailure failure) {
+        long now = clock.currentTimeMillis();
+        put(rejected, maxRejectedEntries, key, new Entry(TokenVerificationResult.invalid(failure), now + rejectedTtl));
+    }
+
+    private void put(Map<Key, Entry> map, int max, Key key, Entry entry) {
+        if (map.size() >= max) {
+            evict(map, max, clock.currentTimeMillis());
+        }
+        map.put(key, entry);
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.cache.pruneInterval}")
+    public void pruneExpired() {
+        if (enabled) {
+            long now = clock.currentTimeMillis();
+            int removed = removeExpired(entries, now) + removeExpired(rejected, now);
+            logger.debug("Pruned {} expired JWTs, {} verified and {} rejected cached", removed, entries.size(),
+                    rejected.size());
+        }
+    }
+
+    private void evict(Map<Key, Entry> map, int max, long now) {
+        // Expired entries go first. If that's not enough, drop arbitrary entries to get 10% below the limit
+        // (eviction is amortized over many inserts instead of happening on each one)
+        if (removeExpired(map, now) > 0 && map.size() < max) {
+            return;
+        }
+
+        int target = max - Math.max(1, max / 10);
+        Iterator<Key> keys = map.keySet().iterator();
+        while (map.size() > target && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+            evictions.increment();
+        }
+    }
+
+    private int removeExpired(Map<Key, Entry> map, long now) {
+        int removed = 0;
+        Iterator<Entry> values = map.values().iterator();
+        while (values.hasNext()) {
+            if (values.next().expiresAt <= now) {
+                values.remove();
+                removed++;
+            }
+        }
+        evictions.add(removed);
+        return removed;
+    }
+
+    public void clear() {
+        entries.clear();
+        rejected.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public int rejectedSize() {
+        return rejected.size();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getRejectedHits() {
+        return rejectedHits.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+
+    public static final class Key {
+
+        private final byte[] digest;
+        private final int hash;
+
+        private Key(byte[] digest) {
+            this.digest = digest;
+            // Digest is uniformly distributed, its first bytes make a good hash
+            this.hash = (digest[0] & 0xFF) << 24 | (digest[1] & 0xFF) << 16 | (digest[2] & 0xFF) << 8 | (digest[3] & 0xFF);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o || (o instanceof Key && Arrays.equals(digest, ((Key) o).digest));
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    // SHA-256 of token's UTF-8 bytes. Tokens are ASCII, their bytes are copied to a reusable buffer instead of a new array
+    private static final class TokenDigest {
+
+        // Longer tokens than this (header size is limited anyway) get a new array, so the buffer can't grow without bounds
+        private static final int MAX_BUFFER_SIZE = 8192;
+
+        private final MessageDigest digest;
+        private byte[] buffer = new byte[512];
+
+        private TokenDigest() {
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException ex) {
+                throw new IllegalStateException("SHA-256 not supported by JVM", ex);
+            }
+        }
+
+        private byte[] digest(String token) {
+            int length = token.length();
+            if (length > MAX_BUFFER_SIZE) {
+                return digest.digest(token.getBytes(StandardCharsets.UTF_8));
+            }
+            if (length > buffer.length) {
+                buffer = new byte[Math.min(MAX_BUFFER_SIZE, Math.max(length, buffer.length * 2))];
+            }
+
+            for (int i = 0; i < length; i++) {
+                char c = token.charAt(i);
+                if (c > 0x7F) {
+                    // Not a valid token, but it mustn't share key with another token, so it's digested as UTF-8 bytes
+                    return digest.digest(token.getBytes(StandardCharsets.UTF_8));
+                }
+                buffer[i] = (byte) c;
+            }
+            digest.update(buffer, 0, length);
+            return digest.digest();
+        }
+    }
+
+    private static final class Entry {
+
+        private final TokenVerificationResult result;
+        private final long expiresAt;
+
+        private Entry(TokenVerificationResult result, long expiresAt) {
+            this.result = result;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
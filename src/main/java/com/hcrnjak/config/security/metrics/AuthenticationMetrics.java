@@ -0,0 +1,79 @@
+package com.hcrnjak.config.security.metrics;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.stereotype.Component;
+
+import com.hcrnjak.config.security.jwt.TokenVerificationFailure;
+
+/**
+ * Timings and counters of authentication hot paths (JWT filter, token verification and generation, login).
+ * Values are only aggregated here, they are read (and formatted) when the metrics endpoint is scraped.
+ **/
+@Component
+public class AuthenticationMetrics {
+
+    private static final TokenVerificationFailure[] FAILURES = TokenVerificationFailure.values();
+
+    private final LatencyHistogram filter = new LatencyHistogram();
+    private final LatencyHistogram tokenVerification = new LatencyHistogram();
+    private final LatencyHistogram tokenGeneration = new LatencyHistogram();
+    private final LatencyHistogram passwordCheck = new LatencyHistogram();
+    private final LatencyHistogram userLookup = new LatencyHistogram();
+
+    // Indexed by TokenVerificationFailure ordinal
+    private final LongAdder[] rejectedTokens = new LongAdder[FAILURES.length];
+
+    private final LongAdder rateLimitedLogins = new LongAdder();
+
+    public AuthenticationMetrics() {
+        for (int i = 0; i < rejectedTokens.length; i++) {
+            rejectedTokens[i] = new LongAdder();
+        }
+    }
+
+    public void recordRejectedToken(TokenVerificationFailure failure) {
+        rejectedTokens[failure.ordinal()].increment();
+    }
+
+    public long getRejectedTokens(TokenVerificationFailure failure) {
+        return rejectedTokens[failure.ordinal()].sum();
+    }
+
+    public void recordRateLimitedLogin() {
+        rateLimitedLogins.increment();
+    }
+
+    public long getRateLimitedLogins() {
+        return rateLimitedLogins.sum();
+    }
+
+    // JWT authentication filter, including token verification
+    public LatencyHistogram getFilter() {
+        return filter;
+    }
+
+    public LatencyHistogram getTokenVerification() {
+        return tokenVerification;
+    }
+
+    public LatencyHistogram getTokenGeneration() {
+        return tokenGeneration;
+    }
+
+    // BCrypt password check
+    public LatencyHistogram getPasswordCheck() {
+        return passwordCheck;
+    }
+
+    // Loading User's authentication info from DB
+    public LatencyHistogram getUserLookup() {
+        return userLookup;
+    }
+
+    // Label value used for the given failure on metrics endpoint
+    public static String label(TokenVerificationFailure failure) {
+        return failure.name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,43 @@
+package com.hcrnjak.config.security.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with fixed, exponential buckets : bucket i counts durations up to 2^i microseconds
+ * (1 us ... ~4 s), the last bucket counts everything above that. Recording is a few atomic increments and doesn't allocate,
+ * so it's safe to use on hot paths.
+ **/
+public final class LatencyHistogram {
+
+    public static final int BUCKET_COUNT = 23;
+
+    private final LongAdder sumNanos = new LongAdder();
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT + 1);
+
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    public void record(long nanos) {
+        sumNanos.add(nanos);
+
+        // Smallest i such that micros <= 2^i, computed from the position of the highest bit
+        long micros = Math.max(nanos - 1, 0) / 1000;
+        buckets.incrementAndGet(Math.min(64 - Long.numberOfLeadingZeros(micros), BUCKET_COUNT));
+    }
+
+    public long getSumNanos() {
+        return sumNanos.sum();
+    }
+
+    // Number of recorded durations which fall into the given bucket (not cumulative)
+    public long getBucketCount(int bucket) {
+        return buckets.get(bucket);
+    }
+
+    // Upper bound of the given bucket in seconds (infinite for the last one)
+    public static double getBucketUpperBound(int bucket) {
+        return bucket < BUCKET_COUNT ? (1L << bucket) / 1e6 : Double.POSITIVE_INFINITY;
+    }
+}
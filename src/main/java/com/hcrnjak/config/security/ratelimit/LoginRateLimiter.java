@@ -0,0 +1,106 @@
+package com.hcrnjak.config.security.ratelimit;
+
+import java.util.Locale;
+
+import javax.annotation.PostConstruct;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.hcrnjak.config.security.state.AuthenticationStateStore;
+
+/**
+ * Limits login attempts per username (credential guessing against one account) and per client IP (credential stuffing
+ * across many accounts). Limits are checked before the password is, so rejected attempts cost neither DB lookup nor BCrypt.
+ * Limits are checked locally, attempts are shared with other app instances through the state store every
+ * 'state.syncInterval', so the limits hold for the whole cluster (attempts made on other instances are seen within two
+ * sync intervals).
+ **/
+@Component
+public class LoginRateLimiter {
+
+    private final Logger logger = LogManager.getLogger(LoginRateLimiter.class);
+
+    private static final String IP_LIMITER = "ip";
+    private static final String USERNAME_LIMITER = "username";
+    private static final int MAX_USERNAME_KEY_LENGTH = 100;
+
+    @Value("${login.rateLimit.enabled}")
+    private boolean enabled;
+
+    @Value("${login.rateLimit.username.burst}")
+    private int usernameBurst;
+
+    @Value("${login.rateLimit.username.refillPeriod}")
+    private long usernameRefillPeriod;
+
+    @Value("${login.rateLimit.ip.burst}")
+    private int ipBurst;
+
+    @Value("${login.rateLimit.ip.refillPeriod}")
+    private long ipRefillPeriod;
+
+    @Value("${login.rateLimit.maxEntries}")
+    private int maxEntries;
+
+    @Autowired
+    private AuthenticationStateStore stateStore;
+
+    private RateLimiter usernameLimiter;
+    private RateLimiter ipLimiter;
+
+    @PostConstruct
+    public void init() {
+        usernameLimiter = new RateLimiter(usernameBurst, usernameRefillPeriod, maxEntries);
+        ipLimiter = new RateLimiter(ipBurst, ipRefillPeriod, maxEntries);
+    }
+
+    // Returns 0 if login attempt is allowed, otherwise number of milliseconds the client should wait before retrying
+    public long tryAcquire(String username, String clientIp) {
+        if (!enabled) {
+            return 0;
+        }
+
+        long now = System.currentTimeMillis();
+        long ipWait = ipLimiter.tryAcquire(clientIp, now);
+        if (ipWait > 0) {
+            return ipWait;
+        }
+        return usernameLimiter.tryAcquire(usernameKey(username), now);
+    }
+
+    @Scheduled(fixedDelayString = "${state.syncInterval}")
+    public void sync() {
+        if (!enabled) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        ipLimiter.merge(stateStore.syncRateLimits(IP_LIMITER, ipLimiter.drainAttempts(), ipRefillPeriod, now));
+        usernameLimiter.merge(stateStore.syncRateLimits(USERNAME_LIMITER, usernameLimiter.drainAttempts(),
+                usernameRefillPeriod, now));
+    }
+
+    private static String usernameKey(String username) {
+        if (username == null) {
+            return "";
+        }
+        // Usernames are matched case-insensitively, so case variations don't get separate limits. Very long usernames
+        // are cut, they share a limit with other usernames with the same beginning (which only makes them stricter)
+        String key = username.toLowerCase(Locale.ROOT);
+        return key.length() > MAX_USERNAME_KEY_LENGTH ? key.substring(0, MAX_USERNAME_KEY_LENGTH) : key;
+    }
+
+    @Scheduled(fixedDelayString = "${login.rateLimit.pruneInterval}")
+    public void pruneIdle() {
+        long now = System.currentTimeMillis();
+        int pruned = usernameLimiter.pruneIdle(now) + ipLimiter.pruneIdle(now);
+        stateStore.deleteIdleRateLimits(now);
+        logger.debug("Pruned {} idle login rate limits, {} usernames and {} IPs tracked", pruned, usernameLimiter.size(),
+                ipLimiter.size());
+    }
+}
@@ -0,0 +1,130 @@
+package com.hcrnjak.config.security.ratelimit;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-key token bucket, implemented as generic cell rate algorithm (GCRA) : each key holds only the time at which its
+ * bucket would be completely refilled, updated with a single CAS. Up to 'burst' attempts are allowed at once, after that
+ * one attempt per 'refillPeriod'. Keys whose bucket is full again carry no information and are pruned.
+ * Number of tracked keys is bounded. When the map is full, a new key replaces the least limited of a few sampled keys,
+ * so a flood of junk keys (each limited the least) neither locks out keys which aren't tracked yet nor evicts keys which
+ * are being limited. Eviction looks at a constant number of keys, full pruning of idle keys is left to the scheduled task.
+ * Attempts are also counted per key until they're drained, so they can be shared with other app instances, whose buckets
+ * are then merged back in.
+ **/
+public class RateLimiter {
+
+    // Keys looked at to pick the one to evict
+    private static final int EVICTION_SAMPLE = 8;
+
+    private final long refillPeriod;
+    private final long burstTolerance;
+    private final int maxEntries;
+
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    public RateLimiter(int burst, long refillPeriod, int maxEntries) {
+        this.refillPeriod = refillPeriod;
+        this.burstTolerance = refillPeriod * (burst - 1);
+        this.maxEntries = maxEntries;
+    }
+
+    // Returns 0 if attempt is allowed, otherwise number of milliseconds after which the next attempt would be allowed
+    public long tryAcquire(String key, long now) {
+        Bucket bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxEntries) {
+                evictLeastLimited();
+            }
+            bucket = buckets.computeIfAbsent(key, k -> new Bucket(now));
+        }
+
+        while (true) {
+            long fullAt = bucket.get();
+            long start = Math.max(fullAt, now);
+            if (start - now > burstTolerance) {
+                return start - now - burstTolerance;
+            }
+            if (bucket.compareAndSet(fullAt, start + refillPeriod)) {
+                bucket.attempts.incrementAndGet();
+                return 0;
+            }
+        }
+    }
+
+    // Least limited key is the one whose bucket gets full first. Its attempts not shared yet are lost, which only makes the
+    // limit of a barely used key a bit looser
+    private void evictLeastLimited() {
+        Map.Entry<String, Bucket> evicted = null;
+        int sampled = 0;
+        for (Iterator<Map.Entry<String, Bucket>> iterator = buckets.entrySet().iterator();
+                iterator.hasNext() && sampled < EVICTION_SAMPLE; sampled++) {
+            Map.Entry<String, Bucket> entry = iterator.next();
+            if (evicted == null || entry.getValue().get() < evicted.getValue().get()) {
+                evicted = entry;
+            }
+        }
+        if (evicted != null) {
+            buckets.remove(evicted.getKey(), evicted.getValue());
+        }
+    }
+
+    public int pruneIdle(long now) {
+        int pruned = 0;
+        for (Iterator<Bucket> iterator = buckets.values().iterator(); iterator.hasNext(); ) {
+            Bucket bucket = iterator.next();
+            // Attempts not shared yet would get lost
+            if (bucket.get() <= now && bucket.attempts.get() == 0) {
+                iterator.remove();
+                pruned++;
+            }
+        }
+        return pruned;
+    }
+
+    // Returns attempts per key made since the previous drain
+    public Map<String, Integer> drainAttempts() {
+        Map<String, Integer> attempts = new HashMap<>();
+        for (Map.Entry<String, Bucket> bucket : buckets.entrySet()) {
+            int keyAttempts = bucket.getValue().attempts.getAndSet(0);
+            if (keyAttempts > 0) {
+                attempts.put(bucket.getKey(), keyAttempts);
+            }
+        }
+        return attempts;
+    }
+
+    // Buckets from other instances already include this instance's attempts, so the later refill time wins
+    public void merge(Map<String, Long> fullAtByKey) {
+        for (Map.Entry<String, Long> shared : fullAtByKey.entrySet()) {
+            Bucket bucket = buckets.get(shared.getKey());
+            if (bucket == null) {
+                if (buckets.size() >= maxEntries) {
+                    continue;
+                }
+                bucket = buckets.computeIfAbsent(shared.getKey(), k -> new Bucket(0));
+            }
+            bucket.accumulateAndGet(shared.getValue(), Math::max);
+        }
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    // Value is the time (epoch millis) at which the bucket is full again
+    private static final class Bucket extends AtomicLong {
+
+        // Attempts made since the last drain
+        private final AtomicInteger attempts = new AtomicInteger();
+
+        private Bucket(long fullAt) {
+            super(fullAt);
+        }
+    }
+}
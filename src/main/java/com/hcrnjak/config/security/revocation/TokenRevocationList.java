@@ -0,0 +1,123 @@
+package com.hcrnjak.config.security.revocation;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.PostConstruct;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.hcrnjak.config.security.jwt.TokenClock;
+import com.hcrnjak.config.security.state.AuthenticationStateStore;
+import com.hcrnjak.config.security.state.RevocationSnapshot;
+
+/**
+ * Tokens revoked before they expired : single tokens by their ID ('jti' claim), or all of User's tokens issued up to some
+ * moment. Revocations are saved to the state store and kept in memory, so checking a token doesn't touch the store.
+ * In-memory copy is reloaded from the store every 'state.syncInterval', which picks up revocations made on other app
+ * instances. Token IDs go through Bloom filter first, so the exact set is only consulted for (rare) revoked tokens and
+ * false positives. Revocations are dropped once tokens they apply to would have expired anyway.
+ **/
+@Component
+public class TokenRevocationList {
+
+    private final Logger logger = LogManager.getLogger(TokenRevocationList.class);
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    @Value("${jwt.expiration}")
+    private Long expiration;
+
+    @Value("${jwt.clock.allowedSkew}")
+    private long allowedClockSkew;
+
+    @Value("${jwt.revocation.expectedTokens}")
+    private int expectedTokens;
+
+    @Autowired
+    private AuthenticationStateStore stateStore;
+
+    @Autowired
+    private TokenClock clock;
+
+    // Token ID -> token expiration (epoch seconds)
+    private volatile Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+
+    // User ID -> tokens issued at or before are revoked (epoch seconds)
+    private volatile Map<Long, Long> userRevocations = new ConcurrentHashMap<>();
+
+    private volatile BloomFilter tokenFilter;
+
+    @PostConstruct
+    public void load() {
+        reload();
+        logger.info("Loaded {} revoked tokens and {} User token revocations", revokedTokens.size(), userRevocations.size());
+    }
+
+    @Scheduled(fixedDelayString = "${state.syncInterval}")
+    public synchronized void reload() {
+        // Local revocations are saved to the store before they are added here, so reload never drops them
+        RevocationSnapshot snapshot = stateStore.loadRevocations();
+        revokedTokens = new ConcurrentHashMap<>(snapshot.getRevokedTokens());
+        userRevocations = new ConcurrentHashMap<>(snapshot.getUserRevocations());
+        rebuildTokenFilter();
+    }
+
+    public boolean isRevoked(String tokenId, Long userId, long issuedAt) {
+        if (!userRevocations.isEmpty()) {
+            Long revokedBefore = userRevocations.get(userId);
+            if (revokedBefore != null && issuedAt <= revokedBefore) {
+                return true;
+            }
+        }
+
+        return tokenId != null && tokenFilter.mightContain(tokenId) && revokedTokens.containsKey(tokenId);
+    }
+
+    public void revokeToken(String tokenId, Long userId, long expiresAt) {
+        stateStore.saveRevokedToken(tokenId, userId, expiresAt);
+
+        // Token must be in the filter whenever it's in the set, filter is rebuilt under the same lock
+        synchronized (this) {
+            revokedTokens.put(tokenId, expiresAt);
+            tokenFilter.add(tokenId);
+        }
+        logger.info("Revoked token {} of User {}", tokenId, userId);
+    }
+
+    public synchronized void revokeUserTokens(Long userId) {
+        // Same clock as token 'iat', so tokens issued before revocation are always older
+        long now = clock.currentTimeMillis() / 1000;
+        stateStore.saveUserRevocation(userId, now);
+        userRevocations.put(userId, now);
+        logger.info("Revoked all tokens of User {}", userId);
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.pruneInterval}")
+    public void pruneExpired() {
+        // Tokens are accepted until 'exp' + clock skew, revocations must outlive that. Coarse clock lags behind system
+        // time, so it can only delay pruning
+        long acceptedExpiration = clock.currentTimeMillis() / 1000 - allowedClockSkew;
+
+        // Tokens issued before revocation expire at most 'expiration' seconds after it
+        long revokedBeforeLimit = acceptedExpiration - expiration;
+        int deleted = stateStore.deleteExpiredRevocations(acceptedExpiration, revokedBeforeLimit);
+
+        // Removed entries can't be removed from Bloom filter, so it's rebuilt by reload
+        reload();
+        logger.debug("Pruned {} expired revocations", deleted);
+    }
+
+    private synchronized void rebuildTokenFilter() {
+        BloomFilter filter = new BloomFilter(Math.max(expectedTokens, revokedTokens.size() * 2), FALSE_POSITIVE_RATE);
+        for (String tokenId : revokedTokens.keySet()) {
+            filter.add(tokenId);
+        }
+        tokenFilter = filter;
+    }
+}
@@ -0,0 +1,32 @@
+package com.hcrnjak.config.security.state;
+
+import java.util.Map;
+
+/**
+ * Authentication state which has to be shared between app instances : token revocations and login rate limits.
+ * Components keep a local copy of the state, so hot paths never call the store directly. Local copies are synchronized
+ * with the store periodically ('state.syncInterval'), which is how instances learn about each other's changes.
+ **/
+public interface AuthenticationStateStore {
+
+    // Token revocations are written through, so they are durable once revocation is confirmed to the client
+
+    void saveRevokedToken(String tokenId, Long userId, long expiresAt);
+
+    void saveUserRevocation(Long userId, long revokedBefore);
+
+    RevocationSnapshot loadRevocations();
+
+    // Returns number of deleted revocations
+    int deleteExpiredRevocations(long tokensExpiredAt, long usersRevokedBefore);
+
+    /**
+     * Adds attempts made on this instance since the previous sync to shared buckets of the given limiter (each attempt
+     * pushes bucket's refill time by 'refillPeriod'), then returns refill times (epoch millis) of all the limiter's buckets
+     * which aren't full at 'now', including the ones updated by other instances.
+     **/
+    Map<String, Long> syncRateLimits(String limiter, Map<String, Integer> attempts, long refillPeriod, long now);
+
+    // Returns number of deleted buckets
+    int deleteIdleRateLimits(long now);
+}
@@ -0,0 +1,72 @@
+package com.hcrnjak.config.security.state;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * State kept in this instance's memory only, for single instance deployments (and tests). State is lost on restart.
+ **/
+@Component
+@ConditionalOnProperty(name = "state.store", havingValue = "memory")
+public class InMemoryAuthenticationStateStore implements AuthenticationStateStore {
+
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+    private final Map<Long, Long> userRevocations = new ConcurrentHashMap<>();
+
+    // Limiter name + ':' + key -> time (epoch millis) at which the bucket is full again
+    private final Map<String, AtomicLong> rateLimits = new ConcurrentHashMap<>();
+
+    @Override
+    public void saveRevokedToken(String tokenId, Long userId, long expiresAt) {
+        revokedTokens.put(tokenId, expiresAt);
+    }
+
+    @Override
+    public void saveUserRevocation(Long userId, long revokedBefore) {
+        userRevocations.put(userId, revokedBefore);
+    }
+
+    @Override
+    public RevocationSnapshot loadRevocations() {
+        return new RevocationSnapshot(new HashMap<>(revokedTokens), new HashMap<>(userRevocations));
+    }
+
+    @Override
+    public int deleteExpiredRevocations(long tokensExpiredAt, long usersRevokedBefore) {
+        int deleted = revokedTokens.size() + userRevocations.size();
+        revokedTokens.values().removeIf(expiresAt -> expiresAt <= tokensExpiredAt);
+        userRevocations.values().removeIf(revokedBefore -> revokedBefore <= usersRevokedBefore);
+        return deleted - revokedTokens.size() - userRevocations.size();
+    }
+
+    @Override
+    public Map<String, Long> syncRateLimits(String limiter, Map<String, Integer> attempts, long refillPeriod, long now) {
+        String prefix = limiter + ':';
+        for (Map.Entry<String, Integer> attempt : attempts.entrySet()) {
+            long added = attempt.getValue() * refillPeriod;
+            rateLimits.computeIfAbsent(prefix + attempt.getKey(), id -> new AtomicLong(now))
+                    .accumulateAndGet(now, (fullAt, time) -> Math.max(fullAt, time) + added);
+        }
+
+        Map<String, Long> limited = new HashMap<>();
+        for (Map.Entry<String, AtomicLong> rateLimit : rateLimits.entrySet()) {
+            long fullAt = rateLimit.getValue().get();
+            if (fullAt > now && rateLimit.getKey().startsWith(prefix)) {
+                limited.put(rateLimit.getKey().substring(prefix.length()), fullAt);
+            }
+        }
+        return limited;
+    }
+
+    @Override
+    public int deleteIdleRateLimits(long now) {
+        int size = rateLimits.size();
+        rateLimits.values().removeIf(fullAt -> fullAt.get() <= now);
+        return size - rateLimits.size();
+    }
+}
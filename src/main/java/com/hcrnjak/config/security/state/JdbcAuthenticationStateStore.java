@@ -0,0 +1,131 @@
+package com.hcrnjak.config.security.state;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * State shared between app instances through app's datasource (tables are mapped as entities in model package).
+ * Rate limit attempts are written in batches, once per sync, instead of once per login attempt.
+ * Upserts are done as update + insert (and update again if another instance inserted the row in the meantime), so no
+ * database specific MERGE syntax is needed.
+ **/
+@Component
+@ConditionalOnProperty(name = "state.store", havingValue = "jdbc", matchIfMissing = true)
+public class JdbcAuthenticationStateStore implements AuthenticationStateStore {
+
+    private static final String UPDATE_RATE_LIMIT =
+            "update RATE_LIMITS set FULL_AT = case when FULL_AT > ? then FULL_AT else ? end + ? where ID = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void saveRevokedToken(String tokenId, Long userId, long expiresAt) {
+        try {
+            jdbcTemplate.update("insert into REVOKED_TOKENS (ID, USER_ID, EXPIRES_AT) values (?, ?, ?)",
+                    tokenId, userId, expiresAt);
+        } catch (DuplicateKeyException ex) {
+            // Already revoked (token ID and expiration can't change)
+        }
+    }
+
+    @Override
+    public void saveUserRevocation(Long userId, long revokedBefore) {
+        String update = "update USER_TOKEN_REVOCATIONS set REVOKED_BEFORE = ? where USER_ID = ? and REVOKED_BEFORE < ?";
+        if (jdbcTemplate.update(update, revokedBefore, userId, revokedBefore) > 0) {
+            return;
+        }
+
+        try {
+            jdbcTemplate.update("insert into USER_TOKEN_REVOCATIONS (USER_ID, REVOKED_BEFORE) values (?, ?)",
+                    userId, revokedBefore);
+        } catch (DuplicateKeyException ex) {
+            // Row exists, either with later revocation already or inserted concurrently
+            jdbcTemplate.update(update, revokedBefore, userId, revokedBefore);
+        }
+    }
+
+    @Override
+    public RevocationSnapshot loadRevocations() {
+        Map<String, Long> revokedTokens = new HashMap<>();
+        jdbcTemplate.query("select ID, EXPIRES_AT from REVOKED_TOKENS",
+                row -> { revokedTokens.put(row.getString(1), row.getLong(2)); });
+
+        Map<Long, Long> userRevocations = new HashMap<>();
+        jdbcTemplate.query("select USER_ID, REVOKED_BEFORE from USER_TOKEN_REVOCATIONS",
+                row -> { userRevocations.put(row.getLong(1), row.getLong(2)); });
+
+        return new RevocationSnapshot(revokedTokens, userRevocations);
+    }
+
+    @Override
+    public int deleteExpiredRevocations(long tokensExpiredAt, long usersRevokedBefore) {
+        return jdbcTemplate.update("delete from REVOKED_TOKENS where EXPIRES_AT <= ?", tokensExpiredAt)
+                + jdbcTemplate.update("delete from USER_TOKEN_REVOCATIONS where REVOKED_BEFORE <= ?", usersRevokedBefore);
+    }
+
+    @Override
+    public Map<String, Long> syncRateLimits(String limiter, Map<String, Integer> attempts, long refillPeriod, long now) {
+        String prefix = limiter + ':';
+
+        if (!attempts.isEmpty()) {
+            List<Object[]> updates = new ArrayList<>(attempts.size());
+            for (Map.Entry<String, Integer> attempt : attempts.entrySet()) {
+                updates.add(new Object[] { now, now, attempt.getValue() * refillPeriod, prefix + attempt.getKey() });
+            }
+            int[] updated = jdbcTemplate.batchUpdate(UPDATE_RATE_LIMIT, updates);
+
+            // Buckets which don't exist yet
+            List<Object[]> inserts = new ArrayList<>();
+            for (int i = 0; i < updated.length; i++) {
+                if (updated[i] == 0) {
+                    Object[] update = updates.get(i);
+                    inserts.add(new Object[] { update[3], limiter, now + (Long) update[2] });
+                }
+            }
+            insertRateLimits(inserts, now);
+        }
+
+        Map<String, Long> limited = new HashMap<>();
+        jdbcTemplate.query("select ID, FULL_AT from RATE_LIMITS where LIMITER = ? and FULL_AT > ?",
+                row -> { limited.put(row.getString(1).substring(prefix.length()), row.getLong(2)); }, limiter, now);
+        return limited;
+    }
+
+    private void insertRateLimits(List<Object[]> inserts, long now) {
+        if (inserts.isEmpty()) {
+            return;
+        }
+
+        String insert = "insert into RATE_LIMITS (ID, LIMITER, FULL_AT) values (?, ?, ?)";
+        try {
+            jdbcTemplate.batchUpdate(insert, inserts);
+        } catch (DuplicateKeyException ex) {
+            // Another instance inserted some of the buckets concurrently, fall back to row by row upsert. Rows inserted by
+            // the failed batch get their attempts counted twice, which only makes the limit stricter for a moment
+            for (Object[] row : inserts) {
+                long added = (Long) row[2] - now;
+                if (jdbcTemplate.update(UPDATE_RATE_LIMIT, now, now, added, row[0]) == 0) {
+                    try {
+                        jdbcTemplate.update(insert, row);
+                    } catch (DuplicateKeyException duplicate) {
+                        jdbcTemplate.update(UPDATE_RATE_LIMIT, now, now, added, row[0]);
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public int deleteIdleRateLimits(long now) {
+        return jdbcTemplate.update("delete from RATE_LIMITS where FULL_AT <= ?", now);
+    }
+}
@@ -0,0 +1,25 @@
+package com.hcrnjak.config.security.state;
+
+import java.util.Map;
+
+public final class RevocationSnapshot {
+
+    // Token ID -> token expiration (epoch seconds)
+    private final Map<String, Long> revokedTokens;
+
+    // User ID -> tokens issued at or before are revoked (epoch seconds)
+    private final Map<Long, Long> userRevocations;
+
+    public RevocationSnapshot(Map<String, Long> revokedTokens, Map<Long, Long> userRevocations) {
+        this.revokedTokens = revokedTokens;
+        this.userRevocations = userRevocations;
+    }
+
+    public Map<String, Long> getRevokedTokens() {
+        return revokedTokens;
+    }
+
+    public Map<Long, Long> getUserRevocations() {
+        return userRevocations;
+    }
+}
@@ -1,21 +1,44 @@
 package com.hcrnjak.domain;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.task.AsyncListenableTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.util.concurrent.ListenableFuture;
 
+import com.hcrnjak.config.security.authentication.AdaptiveBCryptPasswordEncoder;
+import com.hcrnjak.config.security.authentication.AuthenticatedUser;
+import com.hcrnjak.config.security.authentication.UserDetailsCache;
 import com.hcrnjak.model.view.AuthenticationRequest;
+import com.hcrnjak.repositories.UserRepository;
 
 @Service
 public class AuthenticationService {
 
+    private final Logger logger = LogManager.getLogger(AuthenticationService.class);
+
     @Autowired
     private AuthenticationManager authenticationManager;
 
-    public void authenticateUser(AuthenticationRequest authenticationRequest) {
+    @Autowired
+    private AdaptiveBCryptPasswordEncoder passwordEncoder;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AsyncListenableTaskExecutor loginExecutor;
+
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    public AuthenticatedUser authenticateUser(AuthenticationRequest authenticationRequest) {
         // Authenticate User
         final Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(
@@ -24,5 +47,41 @@ public class AuthenticationService {
                 )
         );
         SecurityContextHolder.getContext().setAuthentication(authentication);
+
+        // Principal is the User loaded while checking the password, no need to load it again
+        AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+        upgradePasswordEncoding(user, authenticationRequest.getPassword());
+        return user;
+    }
+
+    // Authenticates User on login executor, throws TaskRejectedException if executor is saturated
+    public ListenableFuture<AuthenticatedUser> authenticateUserAsync(AuthenticationRequest authenticationRequest) {
+        return loginExecutor.submitListenable(() -> {
+            try {
+                return authenticateUser(authenticationRequest);
+            } finally {
+                // Executor threads are shared between Users
+                SecurityContextHolder.clearContext();
+            }
+        });
+    }
+
+    private void upgradePasswordEncoding(AuthenticatedUser user, String rawPassword) {
+        if (!passwordEncoder.upgradeEncoding(user.getPassword())) {
+            return;
+        }
+
+        // Password was hashed with lower strength than the current one. Re-hash it in background, after User gets a response
+        try {
+            loginExecutor.execute(() -> {
+                userRepository.updatePassword(user.getId(), passwordEncoder.encode(rawPassword));
+                // Bulk update doesn't go through entity listeners
+                userDetailsCache.invalidate(user.getId());
+                logger.info("Password of User {} re-hashed with BCrypt strength {}", user.getId(), passwordEncoder.getStrength());
+            });
+        } catch (TaskRejectedException ex) {
+            // Executor is busy with logins, password will be re-hashed on some later login
+            logger.debug("Password re-hash of User {} postponed", user.getId());
+        }
     }
 }
@@ -0,0 +1,128 @@
+package com.hcrnjak.domain;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+
+import com.hcrnjak.config.security.authentication.AuthenticatedUser;
+import com.hcrnjak.config.security.authentication.AuthenticationInfoRepository;
+import com.hcrnjak.config.security.jwt.JwtTokenHandler;
+import com.hcrnjak.config.security.jwt.TokenFingerprint;
+import com.hcrnjak.config.security.jwt.TokenVerificationFailure;
+import com.hcrnjak.config.security.jwt.TokenVerificationResult;
+import com.hcrnjak.model.view.IssuedToken;
+import com.hcrnjak.model.view.VerifiedToken;
+
+/**
+ * Issues or verifies many tokens in one call, spread over a dedicated fork-join pool (so batches don't compete with other
+ * users of the common pool). Pool threads are long lived, so each of them keeps reusing its own Mac instance from the
+ * signer. A failing item doesn't fail the batch, results are returned per item in the order of the input.
+ **/
+@Service
+public class BulkTokenService {
+
+    private final Logger logger = LogManager.getLogger(BulkTokenService.class);
+
+    @Value("${jwt.bulk.parallelism}")
+    private int parallelism;
+
+    @Value("${jwt.bulk.maxItems}")
+    private int maxItems;
+
+    @Autowired
+    private JwtTokenHandler jwtTokenHandler;
+
+    @Autowired
+    private AuthenticationInfoRepository authenticationInfoRepository;
+
+    private ForkJoinPool pool;
+
+    @PostConstruct
+    public void init() {
+        pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    public int getMaxItems() {
+        return maxItems;
+    }
+
+    public List<IssuedToken> issueTokens(List<String> usernames) {
+        return inParallel(usernames, username -> {
+            try {
+                return issueToken(username);
+            } catch (RuntimeException ex) {
+                // Unexpected failure (e.g. DB unavailable), the rest of the batch still gets processed
+                logger.error("Unable to issue token for User {}", username, ex);
+                return IssuedToken.failed(username, "ERROR");
+            }
+        });
+    }
+
+    public List<VerifiedToken> verifyTokens(List<String> tokens) {
+        return inParallel(tokens, token -> {
+            try {
+                return verifyToken(token);
+            } catch (RuntimeException ex) {
+                // Unexpected failure (e.g. DB unavailable during live User check), token itself is not logged
+                logger.error("Unable to verify token {}", TokenFingerprint.of(token), ex);
+                return VerifiedToken.invalid("ERROR");
+            }
+        });
+    }
+
+    private IssuedToken issueToken(String username) {
+        AuthenticatedUser user;
+        try {
+            user = authenticationInfoRepository.loadUserByUsername(username);
+        } catch (UsernameNotFoundException ex) {
+            return IssuedToken.failed(username, "USER_NOT_FOUND");
+        }
+
+        if (!user.isEnabled()) {
+            return IssuedToken.failed(username, "USER_DISABLED");
+        }
+        return IssuedToken.issued(username, jwtTokenHandler.generateToken(user));
+    }
+
+    private VerifiedToken verifyToken(String token) {
+        if (token == null || token.isEmpty()) {
+            return VerifiedToken.invalid(TokenVerificationFailure.MALFORMED.name());
+        }
+
+        // Verification reports failures as results, it doesn't throw
+        TokenVerificationResult result = jwtTokenHandler.verifyToken(token);
+        if (!result.isValid()) {
+            return VerifiedToken.invalid(result.getFailure().name());
+        }
+
+        AuthenticatedUser user = result.getUser();
+        List<String> authorities = user.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .sorted()
+                .collect(Collectors.toList());
+        return VerifiedToken.valid(user.getId(), user.getUsername(), authorities, result.getExpiresAt());
+    }
+
+    private <T, R> List<R> inParallel(List<T> items, Function<T, R> operation) {
+        // Parallel stream started from a pool's task runs in that pool instead of the common one. Ordered collect keeps
+        // results in the order of the input
+        return pool.submit(() -> items.parallelStream().map(operation).collect(Collectors.toList())).join();
+    }
+}
@@ -0,0 +1,133 @@
+package com.hcrnjak.domain;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.UUID;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import com.hcrnjak.config.security.authentication.AuthenticatedUser;
+import com.hcrnjak.config.security.authentication.AuthenticationInfoRepository;
+import com.hcrnjak.config.security.jwt.JwtTokenHandler;
+import com.hcrnjak.config.security.jwt.TokenClock;
+import com.hcrnjak.model.RefreshToken;
+import com.hcrnjak.model.view.AuthenticationResponse;
+import com.hcrnjak.repositories.RefreshTokenRepository;
+
+/**
+ * Opaque refresh tokens, exchanged for a new access token (JWT) without checking User's password again. Each refresh token
+ * can be used only once, it's rotated (replaced with a new one) on every refresh. If an already used refresh token shows
+ * up again it was most likely stolen, so the whole rotation chain (token family) is revoked.
+ **/
+@Service
+public class RefreshTokenService {
+
+    private final Logger logger = LogManager.getLogger(RefreshTokenService.class);
+
+    private static final int TOKEN_BYTES = 32;
+    private static final Base64.Encoder BASE64_URL_ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    @Value("${jwt.refresh.expiration}")
+    private Long expiration;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private AuthenticationInfoRepository authenticationInfoRepository;
+
+    @Autowired
+    private JwtTokenHandler jwtTokenHandler;
+
+    @Autowired
+    private TokenClock clock;
+
+    // Issues access token and starts a new refresh token family (on login)
+    public AuthenticationResponse issueTokens(AuthenticatedUser user) {
+        return new AuthenticationResponse(jwtTokenHandler.generateToken(user),
+                createRefreshToken(user.getId(), UUID.randomUUID().toString()));
+    }
+
+    public AuthenticationResponse refresh(String refreshToken) {
+        if (!StringUtils.hasText(refreshToken)) {
+            throw new BadCredentialsException("Refresh token missing");
+        }
+
+        String tokenId = hash(refreshToken);
+        RefreshToken storedToken = refreshTokenRepository.findOne(tokenId);
+        if (storedToken == null || storedToken.getExpiresAt() <= clock.currentTimeMillis() / 1000) {
+            throw new BadCredentialsException("Refresh token not valid");
+        }
+
+        // Token reuse, revoke all tokens rotated from the same login
+        if (refreshTokenRepository.markUsed(tokenId) == 0) {
+            refreshTokenRepository.deleteFamily(storedToken.getFamilyId());
+            logger.warn("Refresh token reused, revoked token family of User {}", storedToken.getUserId());
+            throw new BadCredentialsException("Refresh token already used");
+        }
+
+        // Reload User so the new access token carries User's current roles
+        AuthenticatedUser user = authenticationInfoRepository.loadUserById(storedToken.getUserId());
+        if (!user.isEnabled()) {
+            throw new DisabledException("User is disabled");
+        }
+
+        return new AuthenticationResponse(jwtTokenHandler.generateToken(user),
+                createRefreshToken(user.getId(), storedToken.getFamilyId()));
+    }
+
+    // On logout, ends the whole rotation chain of the refresh token, so it can't be used to get new access tokens. Only
+    // User's own refresh token is accepted, unknown or already deleted one is ignored
+    public void revokeFamily(String refreshToken, Long userId) {
+        if (!StringUtils.hasText(refreshToken)) {
+            return;
+        }
+
+        RefreshToken storedToken = refreshTokenRepository.findOne(hash(refreshToken));
+        if (storedToken != null && storedToken.getUserId().equals(userId)) {
+            refreshTokenRepository.deleteFamily(storedToken.getFamilyId());
+        }
+    }
+
+    public void revokeUserTokens(Long userId) {
+        refreshTokenRepository.deleteByUser(userId);
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.refresh.pruneInterval}")
+    public void pruneExpired() {
+        int deleted = refreshTokenRepository.deleteExpired(clock.currentTimeMillis() / 1000);
+        logger.debug("Pruned {} expired refresh tokens", deleted);
+    }
+
+    private String createRefreshToken(Long userId, String familyId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+        String refreshToken = BASE64_URL_ENCODER.encodeToString(bytes);
+
+        refreshTokenRepository.save(new RefreshToken(hash(refreshToken), userId, familyId,
+                clock.currentTimeMillis() / 1000 + expiration));
+        return refreshToken;
+    }
+
+    private static String hash(String refreshToken) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return BASE64_URL_ENCODER.encodeToString(digest.digest(refreshToken.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not supported by JVM", ex);
+        }
+    }
+}
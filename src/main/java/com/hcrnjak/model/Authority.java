@@ -2,6 +2,7 @@ package com.hcrnjak.model;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
 import javax.persistence.GeneratedValue;
@@ -9,9 +10,11 @@ import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.Table;
 
+import com.hcrnjak.config.security.authentication.UserCacheInvalidationListener;
 import com.hcrnjak.model.enums.Role;
 
 @Entity
+@EntityListeners(UserCacheInvalidationListener.class)
 @Table(name = "AUTHORITIES")
 public class Authority {
 
@@ -24,6 +27,10 @@ public class Authority {
     @Enumerated(EnumType.STRING)
     private Role role;
 
+    // Owning User, the join column itself is managed by User.authorities
+    @Column(name = "USER_ID", insertable = false, updatable = false)
+    private Long userId;
+
     private Authority() {}
 
     public Authority(Long id, Role role) {
@@ -43,6 +50,10 @@ public class Authority {
         this.role = role;
     }
 
+    public Long getUserId() {
+        return userId;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
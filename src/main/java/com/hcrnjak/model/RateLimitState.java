@@ -0,0 +1,75 @@
+package com.hcrnjak.model;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * Rate limit bucket shared between app instances (see JdbcAuthenticationStateStore, which reads and writes it with
+ * plain JDBC batches).
+ **/
+@Entity
+@Table(name = "RATE_LIMITS")
+public class RateLimitState {
+
+    // Limiter name and limited key, e.g. 'ip:127.0.0.1'
+    @Id
+    @Column(name = "ID")
+    private String id;
+
+    @Column(name = "LIMITER")
+    private String limiter;
+
+    // Time (epoch millis) at which the bucket is full again
+    @Column(name = "FULL_AT")
+    private Long fullAt;
+
+    private RateLimitState() {}
+
+    public RateLimitState(String id, String limiter, Long fullAt) {
+        this.id = id;
+        this.limiter = limiter;
+        this.fullAt = fullAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getLimiter() {
+        return limiter;
+    }
+
+    public Long getFullAt() {
+        return fullAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RateLimitState)) {
+            return false;
+        }
+
+        RateLimitState rateLimitState = (RateLimitState) o;
+
+        return id != null ? id.equals(rateLimitState.id) : rateLimitState.id == null;
+    }
+
+    @Override
+    public int hashCode() {
+        return id != null ? id.hashCode() : 0;
+    }
+
+    @Override
+    public String toString() {
+        return "RateLimitState{" +
+                "id='" + id + '\'' +
+                ", limiter='" + limiter + '\'' +
+                ", fullAt=" + fullAt +
+                '}';
+    }
+}
@@ -0,0 +1,90 @@
+package com.hcrnjak.model;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+@Entity
+@Table(name = "REFRESH_TOKENS")
+public class RefreshToken {
+
+    // SHA-256 of the token, token itself is never stored
+    @Id
+    @Column(name = "ID")
+    private String id;
+
+    @Column(name = "USER_ID")
+    private Long userId;
+
+    // All tokens created by rotating the same login's refresh token belong to the same family
+    @Column(name = "FAMILY_ID")
+    private String familyId;
+
+    // Epoch seconds
+    @Column(name = "EXPIRES_AT")
+    private Long expiresAt;
+
+    // Token was already exchanged for a new one
+    @Column(name = "USED")
+    private Boolean used;
+
+    private RefreshToken() {}
+
+    public RefreshToken(String id, Long userId, String familyId, Long expiresAt) {
+        this.id = id;
+        this.userId = userId;
+        this.familyId = familyId;
+        this.expiresAt = expiresAt;
+        this.used = false;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getFamilyId() {
+        return familyId;
+    }
+
+    public Long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public Boolean getUsed() {
+        return used;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RefreshToken)) {
+            return false;
+        }
+
+        RefreshToken refreshToken = (RefreshToken) o;
+
+        return id != null ? id.equals(refreshToken.id) : refreshToken.id == null;
+    }
+
+    @Override
+    public int hashCode() {
+        return id != null ? id.hashCode() : 0;
+    }
+
+    @Override
+    public String toString() {
+        return "RefreshToken{" +
+                "userId=" + userId +
+                ", familyId='" + familyId + '\'' +
+                ", expiresAt=" + expiresAt +
+                ", used=" + used +
+                '}';
+    }
+}
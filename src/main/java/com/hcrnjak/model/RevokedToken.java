@@ -0,0 +1,71 @@
+package com.hcrnjak.model;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+@Entity
+@Table(name = "REVOKED_TOKENS")
+public class RevokedToken {
+
+    // JWT ID ('jti' claim)
+    @Id
+    @Column(name = "ID")
+    private String id;
+
+    @Column(name = "USER_ID")
+    private Long userId;
+
+    // Token expiration (epoch seconds), after which revocation is no longer needed
+    @Column(name = "EXPIRES_AT")
+    private Long expiresAt;
+
+    private RevokedToken() {}
+
+    public RevokedToken(String id, Long userId, Long expiresAt) {
+        this.id = id;
+        this.userId = userId;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Long getExpiresAt() {
+        return expiresAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RevokedToken)) {
+            return false;
+        }
+
+        RevokedToken revokedToken = (RevokedToken) o;
+
+        return id != null ? id.equals(revokedToken.id) : revokedToken.id == null;
+    }
+
+    @Override
+    public int hashCode() {
+        return id != null ? id.hashCode() : 0;
+    }
+
+    @Override
+    public String toString() {
+        return "RevokedToken{" +
+                "id='" + id + '\'' +
+                ", userId=" + userId +
+                ", expiresAt=" + expiresAt +
+                '}';
+    }
+}
@@ -5,6 +5,7 @@ import java.util.Set;
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
@@ -12,8 +13,12 @@ import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.OneToMany;
 import javax.persistence.Table;
+import javax.persistence.Version;
+
+import com.hcrnjak.config.security.authentication.UserCacheInvalidationListener;
 
 @Entity
+@EntityListeners(UserCacheInvalidationListener.class)
 @Table(name = "USERS")
 public class User {
 
@@ -34,6 +39,20 @@ public class User {
     @Column(name = "ENABLED")
     private Boolean enabled;
 
+    // Optimistic locking, incremented by Hibernate on every change of User (including its authorities collection)
+    @Version
+    @Column(name = "VERSION")
+    private Long version;
+
+    // Incremented on every change of User or its Authorities, tokens carry the version they were issued for. Updated only
+    // in SQL by UserStateRegistry, so bumping it doesn't make loaded entities stale
+    @Column(name = "TOKEN_VERSION", nullable = false, updatable = false)
+    private Long tokenVersion = 0L;
+
+    // Time (epoch millis) of the last change, used to poll for changed Users. Updated together with token version
+    @Column(name = "UPDATED_AT", updatable = false)
+    private Long updatedAt = 0L;
+
     @OneToMany(fetch = FetchType.EAGER, cascade = CascadeType.ALL, orphanRemoval = true)
     @JoinColumn(name = "USER_ID")
     private Set<Authority> authorities;
@@ -90,6 +109,18 @@ public class User {
         this.authorities = authorities;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public Long getTokenVersion() {
+        return tokenVersion;
+    }
+
+    public Long getUpdatedAt() {
+        return updatedAt;
+    }
+
     public String getEmail() {
         return email;
     }
@@ -125,6 +156,8 @@ public class User {
                 ", password='" + password + '\'' +
                 ", email='" + email + '\'' +
                 ", enabled=" + enabled +
+                ", version=" + version +
+                ", tokenVersion=" + tokenVersion +
                 ", authorities=" + authorities +
                 '}';
     }
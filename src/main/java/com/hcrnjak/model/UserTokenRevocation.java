@@ -0,0 +1,65 @@
+package com.hcrnjak.model;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+@Entity
+@Table(name = "USER_TOKEN_REVOCATIONS")
+public class UserTokenRevocation {
+
+    @Id
+    @Column(name = "USER_ID")
+    private Long userId;
+
+    // All User's tokens issued at or before this moment (epoch seconds) are revoked
+    @Column(name = "REVOKED_BEFORE")
+    private Long revokedBefore;
+
+    private UserTokenRevocation() {}
+
+    public UserTokenRevocation(Long userId, Long revokedBefore) {
+        this.userId = userId;
+        this.revokedBefore = revokedBefore;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Long getRevokedBefore() {
+        return revokedBefore;
+    }
+
+    public void setRevokedBefore(Long revokedBefore) {
+        this.revokedBefore = revokedBefore;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof UserTokenRevocation)) {
+            return false;
+        }
+
+        UserTokenRevocation revocation = (UserTokenRevocation) o;
+
+        return userId != null ? userId.equals(revocation.userId) : revocation.userId == null;
+    }
+
+    @Override
+    public int hashCode() {
+        return userId != null ? userId.hashCode() : 0;
+    }
+
+    @Override
+    public String toString() {
+        return "UserTokenRevocation{" +
+                "userId=" + userId +
+                ", revokedBefore=" + revokedBefore +
+                '}';
+    }
+}
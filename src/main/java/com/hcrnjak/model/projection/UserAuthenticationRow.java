@@ -0,0 +1,57 @@
+package com.hcrnjak.model.projection;
+
+import com.hcrnjak.model.enums.Role;
+
+/**
+ * Columns of USERS and AUTHORITIES making up an authenticated User, the same data as when it's built from User entity.
+ * One row per User's role (role is null when User has no authorities at all).
+ **/
+public class UserAuthenticationRow {
+
+    private final Long id;
+    private final String username;
+    private final String password;
+    private final String email;
+    private final Boolean enabled;
+    private final Long version;
+    private final Role role;
+
+    public UserAuthenticationRow(Long id, String username, String password, String email, Boolean enabled, Long version,
+            Role role) {
+        this.id = id;
+        this.username = username;
+        this.password = password;
+        this.email = email;
+        this.enabled = enabled;
+        this.version = version;
+        this.role = role;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public Boolean getEnabled() {
+        return enabled;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public Role getRole() {
+        return role;
+    }
+}
@@ -3,12 +3,18 @@ package com.hcrnjak.model.view;
 public class AuthenticationResponse {
 
     private final String token;
+    private final String refreshToken;
 
-    public AuthenticationResponse(String token) {
+    public AuthenticationResponse(String token, String refreshToken) {
         this.token = token;
+        this.refreshToken = refreshToken;
     }
 
     public String getToken() {
         return this.token;
     }
+
+    public String getRefreshToken() {
+        return this.refreshToken;
+    }
 }
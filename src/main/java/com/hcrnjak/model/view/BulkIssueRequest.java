@@ -0,0 +1,22 @@
+package com.hcrnjak.model.view;
+
+import java.util.List;
+
+public class BulkIssueRequest {
+
+    private List<String> usernames;
+
+    private BulkIssueRequest() {}
+
+    public BulkIssueRequest(List<String> usernames) {
+        this.setUsernames(usernames);
+    }
+
+    public List<String> getUsernames() {
+        return this.usernames;
+    }
+
+    public void setUsernames(List<String> usernames) {
+        this.usernames = usernames;
+    }
+}
@@ -0,0 +1,22 @@
+package com.hcrnjak.model.view;
+
+import java.util.List;
+
+public class BulkVerifyRequest {
+
+    private List<String> tokens;
+
+    private BulkVerifyRequest() {}
+
+    public BulkVerifyRequest(List<String> tokens) {
+        this.setTokens(tokens);
+    }
+
+    public List<String> getTokens() {
+        return this.tokens;
+    }
+
+    public void setTokens(List<String> tokens) {
+        this.tokens = tokens;
+    }
+}
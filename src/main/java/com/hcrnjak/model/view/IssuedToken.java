@@ -0,0 +1,38 @@
+package com.hcrnjak.model.view;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+// Either token or error is set
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class IssuedToken {
+
+    private final String username;
+    private final String token;
+    private final String error;
+
+    private IssuedToken(String username, String token, String error) {
+        this.username = username;
+        this.token = token;
+        this.error = error;
+    }
+
+    public static IssuedToken issued(String username, String token) {
+        return new IssuedToken(username, token, null);
+    }
+
+    public static IssuedToken failed(String username, String error) {
+        return new IssuedToken(username, null, error);
+    }
+
+    public String getUsername() {
+        return this.username;
+    }
+
+    public String getToken() {
+        return this.token;
+    }
+
+    public String getError() {
+        return this.error;
+    }
+}
@@ -0,0 +1,20 @@
+package com.hcrnjak.model.view;
+
+public class RefreshTokenRequest {
+
+    private String refreshToken;
+
+    private RefreshTokenRequest() {}
+
+    public RefreshTokenRequest(String refreshToken) {
+        this.setRefreshToken(refreshToken);
+    }
+
+    public String getRefreshToken() {
+        return this.refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+}
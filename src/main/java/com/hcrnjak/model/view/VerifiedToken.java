@@ -0,0 +1,60 @@
+package com.hcrnjak.model.view;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+// Valid tokens carry User's data, invalid ones only the failure reason
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class VerifiedToken {
+
+    private final boolean valid;
+    private final String failure;
+    private final Long userId;
+    private final String username;
+    private final List<String> authorities;
+    private final Long expiresAt;
+
+    private VerifiedToken(boolean valid, String failure, Long userId, String username, List<String> authorities,
+            Long expiresAt) {
+        this.valid = valid;
+        this.failure = failure;
+        this.userId = userId;
+        this.username = username;
+        this.authorities = authorities;
+        this.expiresAt = expiresAt;
+    }
+
+    public static VerifiedToken valid(Long userId, String username, List<String> authorities, long expiresAt) {
+        return new VerifiedToken(true, null, userId, username, authorities, expiresAt);
+    }
+
+    public static VerifiedToken invalid(String failure) {
+        return new VerifiedToken(false, failure, null, null, null, null);
+    }
+
+    public boolean isValid() {
+        return this.valid;
+    }
+
+    public String getFailure() {
+        return this.failure;
+    }
+
+    public Long getUserId() {
+        return this.userId;
+    }
+
+    public String getUsername() {
+        return this.username;
+    }
+
+    public List<String> getAuthorities() {
+        return this.authorities;
+    }
+
+    // Epoch seconds
+    public Long getExpiresAt() {
+        return this.expiresAt;
+    }
+}
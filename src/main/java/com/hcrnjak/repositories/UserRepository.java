@@ -1,10 +1,33 @@
 package com.hcrnjak.repositories;
 
+import java.util.List;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.hcrnjak.model.User;
+import com.hcrnjak.model.projection.UserAuthenticationRow;
 
 public interface UserRepository extends CrudRepository<User, Long> {
 
     User findByUsername(String username);
+
+    // Single query with only the columns needed for authentication, instead of loading whole User entity graph
+    @Query("select new com.hcrnjak.model.projection.UserAuthenticationRow(" +
+            "u.id, u.username, u.password, u.email, u.enabled, u.tokenVersion, a.role) " +
+            "from User u left join u.authorities a where u.username = :username")
+    List<UserAuthenticationRow> findAuthenticationRowsByUsername(@Param("username") String username);
+
+    @Query("select new com.hcrnjak.model.projection.UserAuthenticationRow(" +
+            "u.id, u.username, u.password, u.email, u.enabled, u.tokenVersion, a.role) " +
+            "from User u left join u.authorities a where u.id = :id")
+    List<UserAuthenticationRow> findAuthenticationRowsById(@Param("id") Long id);
+
+    @Modifying
+    @Transactional
+    @Query("update User u set u.password = :password where u.id = :id")
+    int updatePassword(@Param("id") Long id, @Param("password") String password);
 }
@@ -0,0 +1,51 @@
+package com.hcrnjak.view;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.hcrnjak.domain.BulkTokenService;
+import com.hcrnjak.model.view.BulkIssueRequest;
+import com.hcrnjak.model.view.BulkVerifyRequest;
+
+@RestController
+public class BulkTokenController {
+
+    @Autowired
+    private BulkTokenService bulkTokenService;
+
+    /**
+     * Issues access tokens for given Users (e.g. service accounts) without their passwords. Result for each username is
+     * either a token or an error (USER_NOT_FOUND, USER_DISABLED), in the order of the request.
+     **/
+    @RequestMapping(method = RequestMethod.POST, path = "/admin/tokens/issue")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> issueTokens(@RequestBody BulkIssueRequest request) {
+        if (!isValidBatch(request.getUsernames())) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(bulkTokenService.issueTokens(request.getUsernames()));
+    }
+
+    /**
+     * Verifies given tokens. Result for each token is either its User or the reason it was rejected, in the order of the request.
+     **/
+    @RequestMapping(method = RequestMethod.POST, path = "/admin/tokens/verify")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> verifyTokens(@RequestBody BulkVerifyRequest request) {
+        if (!isValidBatch(request.getTokens())) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(bulkTokenService.verifyTokens(request.getTokens()));
+    }
+
+    private boolean isValidBatch(List<String> items) {
+        return items != null && items.size() <= bulkTokenService.getMaxItems();
+    }
+}
@@ -0,0 +1,25 @@
+package com.hcrnjak.view;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.hcrnjak.config.security.jwt.JwtKeySet;
+
+@RestController
+public class JwksController {
+
+    @Autowired
+    private JwtKeySet jwtKeySet;
+
+    /**
+     * Publishes public keys used to sign JWTs (JWK Set format), so other services can verify tokens without calling
+     * this app. Key set is empty when tokens are signed with HMAC (shared secret is never published).
+     **/
+    @RequestMapping(method = RequestMethod.GET, path = "/.well-known/jwks.json")
+    public ResponseEntity<?> getKeySet() {
+        return ResponseEntity.ok(jwtKeySet.getJwks());
+    }
+}
@@ -0,0 +1,101 @@
+package com.hcrnjak.view;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.hcrnjak.config.security.authentication.UserDetailsCache;
+import com.hcrnjak.config.security.jwt.TokenVerificationFailure;
+import com.hcrnjak.config.security.jwt.VerifiedTokenCache;
+import com.hcrnjak.config.security.metrics.AuthenticationMetrics;
+import com.hcrnjak.config.security.metrics.LatencyHistogram;
+
+@RestController
+public class MetricsController {
+
+    private static final MediaType PROMETHEUS_TEXT = MediaType.parseMediaType("text/plain; version=0.0.4; charset=utf-8");
+
+    @Autowired
+    private AuthenticationMetrics authenticationMetrics;
+
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    /**
+     * Exposes authentication metrics in Prometheus text format, so they can be scraped by Prometheus (or any compatible
+     * collector). Access is controlled by 'metrics.public' property.
+     **/
+    @RequestMapping(method = RequestMethod.GET, path = "${metrics.path}")
+    public ResponseEntity<String> getMetrics() {
+        StringBuilder metrics = new StringBuilder(8192);
+
+        appendHistogram(metrics, "jwt_filter_seconds", "JWT authentication filter duration",
+                authenticationMetrics.getFilter());
+        appendHistogram(metrics, "jwt_verification_seconds", "JWT verification duration",
+                authenticationMetrics.getTokenVerification());
+        appendHistogram(metrics, "jwt_generation_seconds", "JWT generation duration",
+                authenticationMetrics.getTokenGeneration());
+        appendHistogram(metrics, "login_password_check_seconds", "BCrypt password check duration",
+                authenticationMetrics.getPasswordCheck());
+        appendHistogram(metrics, "login_user_lookup_seconds", "User authentication info lookup duration",
+                authenticationMetrics.getUserLookup());
+
+        appendHeader(metrics, "jwt_rejected_total", "Rejected JWTs by reason", "counter");
+        for (TokenVerificationFailure failure : TokenVerificationFailure.values()) {
+            metrics.append("jwt_rejected_total{reason=\"").append(AuthenticationMetrics.label(failure)).append("\"} ")
+                    .append(authenticationMetrics.getRejectedTokens(failure)).append('\n');
+        }
+
+        appendHeader(metrics, "login_rate_limited_total", "Login attempts rejected by rate limit", "counter");
+        metrics.append("login_rate_limited_total ").append(authenticationMetrics.getRateLimitedLogins()).append('\n');
+
+        appendHeader(metrics, "jwt_cache_requests_total", "Verified token cache lookups by result", "counter");
+        metrics.append("jwt_cache_requests_total{result=\"hit\"} ").append(verifiedTokenCache.getHits()).append('\n');
+        metrics.append("jwt_cache_requests_total{result=\"miss\"} ").append(verifiedTokenCache.getMisses()).append('\n');
+        metrics.append("jwt_cache_requests_total{result=\"rejected\"} ").append(verifiedTokenCache.getRejectedHits()).append('\n');
+        appendHeader(metrics, "jwt_cache_evictions_total", "Tokens evicted from cache (expired or to make room)", "counter");
+        metrics.append("jwt_cache_evictions_total ").append(verifiedTokenCache.getEvictions()).append('\n');
+        appendHeader(metrics, "jwt_cache_size", "Verified tokens currently cached", "gauge");
+        metrics.append("jwt_cache_size ").append(verifiedTokenCache.size()).append('\n');
+        appendHeader(metrics, "jwt_cache_rejected_size", "Recently rejected tokens currently cached", "gauge");
+        metrics.append("jwt_cache_rejected_size ").append(verifiedTokenCache.rejectedSize()).append('\n');
+
+        appendHeader(metrics, "user_cache_requests_total", "User authentication info cache lookups by result", "counter");
+        metrics.append("user_cache_requests_total{result=\"hit\"} ").append(userDetailsCache.getHits()).append('\n');
+        metrics.append("user_cache_requests_total{result=\"miss\"} ").append(userDetailsCache.getMisses()).append('\n');
+        appendHeader(metrics, "user_cache_evictions_total", "Users evicted from cache (expired or to make room)", "counter");
+        metrics.append("user_cache_evictions_total ").append(userDetailsCache.getEvictions()).append('\n');
+        appendHeader(metrics, "user_cache_size", "Users currently cached", "gauge");
+        metrics.append("user_cache_size ").append(userDetailsCache.size()).append('\n');
+
+        return ResponseEntity.ok().contentType(PROMETHEUS_TEXT).body(metrics.toString());
+    }
+
+    private static void appendHistogram(StringBuilder metrics, String name, String help, LatencyHistogram histogram) {
+        appendHeader(metrics, name, help, "histogram");
+
+        // Prometheus buckets are cumulative
+        long cumulativeCount = 0;
+        for (int bucket = 0; bucket <= LatencyHistogram.BUCKET_COUNT; bucket++) {
+            cumulativeCount += histogram.getBucketCount(bucket);
+            double upperBound = LatencyHistogram.getBucketUpperBound(bucket);
+            metrics.append(name).append("_bucket{le=\"")
+                    .append(Double.isInfinite(upperBound) ? "+Inf" : Double.toString(upperBound))
+                    .append("\"} ").append(cumulativeCount).append('\n');
+        }
+        // Count is taken from buckets, so it's consistent with them even if durations are recorded concurrently
+        metrics.append(name).append("_sum ").append(histogram.getSumNanos() / 1e9).append('\n');
+        metrics.append(name).append("_count ").append(cumulativeCount).append('\n');
+    }
+
+    private static void appendHeader(StringBuilder metrics, String name, String help, String type) {
+        metrics.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        metrics.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+}
@@ -0,0 +1,68 @@
+package com.hcrnjak.view;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.hcrnjak.config.security.jwt.JwtAuthenticationResolver;
+import com.hcrnjak.config.security.jwt.JwtTokenHandler;
+import com.hcrnjak.config.security.jwt.TokenVerificationResult;
+import com.hcrnjak.config.security.revocation.TokenRevocationList;
+import com.hcrnjak.domain.RefreshTokenService;
+import com.hcrnjak.model.view.RefreshTokenRequest;
+
+@RestController
+public class TokenRevocationController {
+
+    @Value("${jwt.header}")
+    private String tokenHeader;
+
+    @Autowired
+    private JwtTokenHandler jwtTokenHandler;
+
+    @Autowired
+    private TokenRevocationList tokenRevocationList;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    /**
+     * Revokes the token used to make this request, so it can't be used any more even though it hasn't expired yet, and
+     * refresh tokens rotated from the refresh token sent in the body (otherwise they could still get new access tokens).
+     **/
+    @RequestMapping(value = "${jwt.route.authentication.logout}", method = RequestMethod.POST)
+    public ResponseEntity<?> logout(HttpServletRequest request,
+            @RequestBody(required = false) RefreshTokenRequest refreshTokenRequest) {
+        String token = JwtAuthenticationResolver.tokenFrom(request.getHeader(tokenHeader));
+        TokenVerificationResult result = token != null ? jwtTokenHandler.verifyToken(token) : null;
+        if (result == null || !result.isValid()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        tokenRevocationList.revokeToken(result.getTokenId(), result.getUser().getId(), result.getExpiresAt());
+        if (refreshTokenRequest != null) {
+            refreshTokenService.revokeFamily(refreshTokenRequest.getRefreshToken(), result.getUser().getId());
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Revokes all tokens issued to User so far, including refresh tokens (e.g. when User's account is compromised).
+     **/
+    @RequestMapping(method = RequestMethod.POST, path = "/admin/users/{userId}/tokens/revoke")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> revokeUserTokens(@PathVariable Long userId) {
+        tokenRevocationList.revokeUserTokens(userId);
+        refreshTokenService.revokeUserTokens(userId);
+        return ResponseEntity.noContent().build();
+    }
+}
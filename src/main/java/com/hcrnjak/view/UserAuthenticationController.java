@@ -1,63 +1,95 @@
 package com.hcrnjak.view;
 
+import javax.servlet.http.HttpServletRequest;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.AuthenticationException;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
 
-import com.hcrnjak.config.security.jwt.JwtTokenHandler;
-import com.hcrnjak.config.security.authentication.AuthenticationInfoRepository;
+import com.hcrnjak.config.security.metrics.AuthenticationMetrics;
+import com.hcrnjak.config.security.ratelimit.LoginRateLimiter;
 import com.hcrnjak.domain.AuthenticationService;
+import com.hcrnjak.domain.RefreshTokenService;
 import com.hcrnjak.model.view.AuthenticationRequest;
-import com.hcrnjak.model.view.AuthenticationResponse;
-import com.hcrnjak.config.security.authentication.AuthenticatedUser;
+import com.hcrnjak.model.view.RefreshTokenRequest;
 
 @RestController
 public class UserAuthenticationController {
 
-    @Value("${jwt.header}")
-    private String tokenHeader;
+    @Value("${login.timeout}")
+    private Long loginTimeout;
 
     @Autowired
-    private JwtTokenHandler jwtTokenHandler;
+    private RefreshTokenService refreshTokenService;
 
     @Autowired
-    private AuthenticationInfoRepository authenticationInfoRepository;
+    private AuthenticationService authenticationService;
 
     @Autowired
-    private AuthenticationService authenticationService;
+    private LoginRateLimiter loginRateLimiter;
 
+    @Autowired
+    private AuthenticationMetrics authenticationMetrics;
+
+    /**
+     * Username/password check runs on a dedicated login executor, request thread is released in the meantime. When the
+     * executor is saturated (or doesn't get to the request in time), 503 is returned so the client can retry later.
+     * Attempts over the rate limit (per username and per client IP) are rejected with 429 before the password is checked.
+     **/
     @RequestMapping(value = "${jwt.route.authentication.path}", method = RequestMethod.POST)
-    public ResponseEntity<?> createAuthenticationToken(@RequestBody AuthenticationRequest authenticationRequest) throws AuthenticationException {
-        // Authenticate User
-        authenticationService.authenticateUser(authenticationRequest);
+    public DeferredResult<ResponseEntity<?>> createAuthenticationToken(@RequestBody AuthenticationRequest authenticationRequest,
+            HttpServletRequest request) {
+        DeferredResult<ResponseEntity<?>> result = new DeferredResult<>(loginTimeout, serviceUnavailable());
 
-        // Generate User's JWT token
-        AuthenticatedUser authenticatedUser = authenticationInfoRepository.loadUserByUsername(authenticationRequest.getUsername());
-        String token = jwtTokenHandler.generateToken(authenticatedUser);
+        // Remote address is the client's one when 'server.use-forward-headers' is set behind a proxy
+        long retryAfter = loginRateLimiter.tryAcquire(authenticationRequest.getUsername(), request.getRemoteAddr());
+        if (retryAfter > 0) {
+            authenticationMetrics.recordRateLimitedLogin();
+            result.setResult(tooManyRequests(retryAfter));
+            return result;
+        }
 
-        // Return User's token
-        return ResponseEntity.ok(new AuthenticationResponse(token));
-    }
+        try {
+            // Authenticate User
+            authenticationService.authenticateUserAsync(authenticationRequest).addCallback(
+                    authenticatedUser -> {
+                        // Generate User's JWT token (and refresh token) and return them
+                        result.setResult(ResponseEntity.ok(refreshTokenService.issueTokens(authenticatedUser)));
+                    },
+                    result::setErrorResult
+            );
+        } catch (TaskRejectedException ex) {
+            result.setResult(serviceUnavailable());
+        }
 
-    /*@RequestMapping(value = "${jwt.route.authentication.refresh}", method = RequestMethod.GET)
-    public ResponseEntity<?> refreshAndGetAuthenticationToken(HttpServletRequest request) {
-        String token = request.getHeader(tokenHeader);
-        String username = jwtTokenHandler.getUsernameFromToken(token);
-        JwtUser user = (JwtUser) userDetailsService.loadUserByUsername(username);
+        return result;
+    }
 
+    private static ResponseEntity<?> serviceUnavailable() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+    }
 
-        // TODO: This will have to be fixed
-        if (jwtTokenUtil.canTokenBeRefreshed(token, user.getLastPasswordResetDate())) {
-            String refreshedToken = jwtTokenUtil.refreshToken(token);
-            return ResponseEntity.ok(new JwtAuthenticationResponse(refreshedToken));
-        } else {
-            return ResponseEntity.badRequest().body(null);
-        }
-    }*/
+    private static ResponseEntity<?> tooManyRequests(long retryAfterMillis) {
+        // Retry-After is in whole seconds, round up so the retry isn't rejected again
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString((retryAfterMillis + 999) / 1000))
+                .build();
+    }
 
+    /**
+     * Exchanges refresh token (received on login or previous refresh) for a new access token and a new refresh token.
+     * Password isn't checked again, and the new access token carries User's current roles.
+     **/
+    @RequestMapping(value = "${jwt.route.authentication.refresh}", method = RequestMethod.POST)
+    public ResponseEntity<?> refreshAuthenticationToken(@RequestBody RefreshTokenRequest refreshTokenRequest) {
+        return ResponseEntity.ok(refreshTokenService.refresh(refreshTokenRequest.getRefreshToken()));
+    }
 }
@@ -2,8 +2,8 @@
 
 -- noinspection SqlDialectInspectionForFile
 
-INSERT INTO USERS (ID, EMAIL, ENABLED, PASSWORD, USERNAME) VALUES (1000, 'user@gmail.com', true, '$2a$10$7nJL8L0VaW8fZj4hMRocwuuBamuCCYEUvRIpwWy.j2lqkIllqBKA.', 'user');
-INSERT INTO USERS (ID, EMAIL, ENABLED, PASSWORD, USERNAME) VALUES (2000, 'admin@gmail.com', true, '$2a$10$ATCkFXIZFTPsNjpopNajeOaxKl683zZN0lwT0gkvVuTS7JZd08JZu', 'admin');
+INSERT INTO USERS (ID, EMAIL, ENABLED, PASSWORD, USERNAME, VERSION, TOKEN_VERSION, UPDATED_AT) VALUES (1000, 'user@gmail.com', true, '$2a$10$7nJL8L0VaW8fZj4hMRocwuuBamuCCYEUvRIpwWy.j2lqkIllqBKA.', 'user', 0, 0, 0);
+INSERT INTO USERS (ID, EMAIL, ENABLED, PASSWORD, USERNAME, VERSION, TOKEN_VERSION, UPDATED_AT) VALUES (2000, 'admin@gmail.com', true, '$2a$10$ATCkFXIZFTPsNjpopNajeOaxKl683zZN0lwT0gkvVuTS7JZd08JZu', 'admin', 0, 0, 0);
 
 INSERT INTO AUTHORITIES (ID, ROLE, USER_ID) VALUES (1001, 'ROLE_USER', 1000);
 INSERT INTO AUTHORITIES (ID, ROLE, USER_ID) VALUES (2001, 'ROLE_USER', 2000);
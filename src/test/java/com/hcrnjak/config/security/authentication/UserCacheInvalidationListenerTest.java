@@ -0,0 +1,117 @@
+package com.hcrnjak.config.security.authentication;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.hcrnjak.config.security.jwt.TokenVerificationFailure;
+import com.hcrnjak.model.Authority;
+import com.hcrnjak.model.User;
+import com.hcrnjak.model.enums.Role;
+import com.hcrnjak.repositories.UserRepository;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "jwt.liveUserCheck.enabled=true")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class UserCacheInvalidationListenerTest {
+
+    private static final Long ADMIN_ID = 2000L;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserStateRegistry userStateRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    public void rolledBackUserChangeIsNotPublished() {
+        Long version = currentVersion();
+        assertNull(userStateRegistry.check(ADMIN_ID, version));
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.execute(status -> {
+            User admin = userRepository.findOne(ADMIN_ID);
+            admin.setEnabled(false);
+            userRepository.save(admin);
+            userRepository.findAuthenticationRowsById(ADMIN_ID);  // query flushes the change, firing entity listener
+            status.setRollbackOnly();
+            return null;
+        });
+
+        assertNull(userStateRegistry.check(ADMIN_ID, version));
+    }
+
+    @Test
+    public void committedUserChangeIsPublished() {
+        Long version = currentVersion();
+        assertNull(userStateRegistry.check(ADMIN_ID, version));
+
+        new TransactionTemplate(transactionManager).execute(status -> {
+            User admin = userRepository.findOne(ADMIN_ID);
+            admin.setEnabled(false);
+            return userRepository.save(admin);
+        });
+
+        assertEquals(TokenVerificationFailure.USER_DISABLED, userStateRegistry.check(ADMIN_ID, version));
+    }
+
+    @Test
+    public void loadedUserCanBeSavedAfterItsRoleChanged() {
+        User loaded = userRepository.findOne(ADMIN_ID);
+        demoteAdmin();
+
+        // Token version is bumped in SQL, JPA version of loaded entity is still current
+        loaded.setEmail("admin@example.com");
+        userRepository.save(loaded);
+        assertEquals("admin@example.com", userRepository.findOne(ADMIN_ID).getEmail());
+    }
+
+    @Test
+    public void versionIsNotBumpedWithoutLiveUserCheck() {
+        ReflectionTestUtils.setField(userStateRegistry, "enabled", false);
+        Long version = currentVersion();
+        demoteAdmin();
+        assertEquals(version, currentVersion());
+    }
+
+    @Test
+    public void changedRoleInvalidatesTokensOfItsUser() {
+        Long version = currentVersion();
+        assertNull(userStateRegistry.check(ADMIN_ID, version));
+
+        demoteAdmin();
+
+        assertEquals(TokenVerificationFailure.USER_CHANGED, userStateRegistry.check(ADMIN_ID, version));
+        Long newVersion = currentVersion();
+        assertEquals(version + 1, newVersion.longValue());
+        assertNull(userStateRegistry.check(ADMIN_ID, newVersion));
+    }
+
+    private void demoteAdmin() {
+        new TransactionTemplate(transactionManager).execute(status -> {
+            User admin = userRepository.findOne(ADMIN_ID);
+            for (Authority authority : admin.getAuthorities()) {
+                if (authority.getRole() == Role.ROLE_ADMIN) {
+                    authority.setRole(Role.ROLE_USER);
+                }
+            }
+            return null;
+        });
+    }
+
+    private Long currentVersion() {
+        return userRepository.findOne(ADMIN_ID).getTokenVersion();
+    }
+}
@@ -0,0 +1,186 @@
+package com.hcrnjak.config.security.jwt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.hcrnjak.config.security.authentication.AuthenticatedUser;
+import com.hcrnjak.config.security.authentication.UserStateRegistry;
+import com.hcrnjak.config.security.metrics.AuthenticationMetrics;
+import com.hcrnjak.config.security.revocation.TokenRevocationList;
+import com.hcrnjak.config.security.state.InMemoryAuthenticationStateStore;
+import com.hcrnjak.model.enums.Role;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+
+/**
+ * Raw verifier has to give exactly the same results as jjwt for tokens issued by the app, it's only a faster engine
+ **/
+public class VerifierCompatibilityTest {
+
+    private static final long EXPIRATION = 604800;
+    private static final long ALLOWED_SKEW = 30;
+    private static final long USER_ID = 1000L;
+    private static final long USER_VERSION = 1L;
+
+    // Fixed time, so tokens are exactly as old as issuers' clocks make them
+    private static final long NOW = 1_500_000_000_000L;
+
+    private final JwtTokenHandler jjwt = tokenHandler("jjwt", true, NOW);
+    private final JwtTokenHandler raw = tokenHandler("raw", true, NOW);
+
+    @Test
+    public void validTokensGiveSameClaims() {
+        for (int authorityCount : new int[] {1, 2, 50}) {
+            String token = jjwt.generateToken(user(authorityCount));
+            TokenVerificationResult expected = jjwt.verifyToken(token);
+            assertTrue(expected.isValid());
+            assertSameResult(expected, raw.verifyToken(token));
+        }
+    }
+
+    @Test
+    public void bitmaskAndListAuthoritiesGiveSameAuthorities() {
+        JwtTokenHandler listAuthorities = tokenHandler("jjwt", false, NOW);
+        for (int authorityCount : new int[] {1, 2, 50}) {
+            AuthenticatedUser user = user(authorityCount);
+            String bitmaskToken = jjwt.generateToken(user);
+            String listToken = listAuthorities.generateToken(user);
+
+            for (JwtTokenHandler verifier : new JwtTokenHandler[] {jjwt, raw}) {
+                assertEquals(user.getAuthorities(), verifier.verifyToken(bitmaskToken).getUser().getAuthorities());
+                assertEquals(user.getAuthorities(), verifier.verifyToken(listToken).getUser().getAuthorities());
+            }
+            assertSameResult(jjwt.verifyToken(listToken), raw.verifyToken(listToken));
+        }
+    }
+
+    @Test
+    public void tamperedSignatureIsRejectedAsBadSignature() {
+        String token = tamperSignature(jjwt.generateToken(user(2)));
+        assertFailure(TokenVerificationFailure.BAD_SIGNATURE, token);
+    }
+
+    @Test
+    public void forgedClaimsAreRejectedAsBadSignature() {
+        String token = jjwt.generateToken(user(2));
+        String[] parts = token.split("\\.");
+        String claims = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8);
+        String forgedClaims = claims.replace("\"uid\":" + USER_ID, "\"uid\":" + (USER_ID + 1));
+        assertFalse(claims.equals(forgedClaims));
+
+        String forged = parts[0] + '.' + Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(forgedClaims.getBytes(StandardCharsets.UTF_8)) + '.' + parts[2];
+        assertFailure(TokenVerificationFailure.BAD_SIGNATURE, forged);
+    }
+
+    @Test
+    public void expiredTokenIsRejected() {
+        JwtTokenHandler expiredIssuer = tokenHandler("jjwt", true, NOW - (EXPIRATION + ALLOWED_SKEW + 1) * 1000);
+        assertFailure(TokenVerificationFailure.EXPIRED, expiredIssuer.generateToken(user(2)));
+    }
+
+    @Test
+    public void tokenExpiredWithinClockSkewIsAccepted() {
+        JwtTokenHandler issuer = tokenHandler("jjwt", true, NOW - (EXPIRATION + ALLOWED_SKEW - 1) * 1000);
+        String token = issuer.generateToken(user(2));
+        TokenVerificationResult expected = jjwt.verifyToken(token);
+        assertTrue(expected.isValid());
+        assertSameResult(expected, raw.verifyToken(token));
+    }
+
+    @Test
+    public void prematureTokenIsRejected() {
+        JwtTokenHandler prematureIssuer = tokenHandler("jjwt", true, NOW + (ALLOWED_SKEW + 1) * 1000);
+        assertFailure(TokenVerificationFailure.NOT_YET_VALID, prematureIssuer.generateToken(user(2)));
+    }
+
+    private void assertFailure(TokenVerificationFailure failure, String token) {
+        assertEquals(failure, jjwt.verifyToken(token).getFailure());
+        assertEquals(failure, raw.verifyToken(token).getFailure());
+    }
+
+    private static void assertSameResult(TokenVerificationResult expected, TokenVerificationResult actual) {
+        assertEquals(expected.isValid(), actual.isValid());
+        assertEquals(expected.getFailure(), actual.getFailure());
+        assertEquals(expected.getTokenId(), actual.getTokenId());
+        assertEquals(expected.getIssuedAt(), actual.getIssuedAt());
+        assertEquals(expected.getExpiresAt(), actual.getExpiresAt());
+
+        AuthenticatedUser expectedUser = expected.getUser();
+        AuthenticatedUser actualUser = actual.getUser();
+        assertEquals(expectedUser.getId(), actualUser.getId());
+        assertEquals(expectedUser.getUsername(), actualUser.getUsername());
+        assertEquals(expectedUser.getVersion(), actualUser.getVersion());
+        assertEquals(expectedUser.getAuthorities(), actualUser.getAuthorities());
+    }
+
+    // Same length signature, so only its verification can tell it's wrong (last character may be only padding bits)
+    private static String tamperSignature(String token) {
+        int position = token.length() - 2;
+        return token.substring(0, position) + (token.charAt(position) == 'A' ? 'B' : 'A') + token.substring(position + 1);
+    }
+
+    private static AuthenticatedUser user(int authorityCount) {
+        // Real roles are encoded as bitmask, any other authority makes the token fall back to authority list
+        Set<GrantedAuthority> authorities = new HashSet<>();
+        Role[] roles = Role.values();
+        for (int i = 0; i < authorityCount; i++) {
+            authorities.add(new SimpleGrantedAuthority(i < roles.length ? roles[i].name() : "ROLE_PERMISSION_" + i));
+        }
+        return new AuthenticatedUser(USER_ID, "user", null, "user@gmail.com", authorities, true, USER_VERSION);
+    }
+
+    private static JwtTokenHandler tokenHandler(String verifier, boolean compactAuthorities, long now) {
+        TokenClock clock = () -> now;
+
+        JwtSignatureProperties signatureProperties = new JwtSignatureProperties();
+        signatureProperties.setAlgorithm(SignatureAlgorithm.HS256);
+        JwtKeySet jwtKeySet = new JwtKeySet();
+        ReflectionTestUtils.setField(jwtKeySet, "secret", "mySecret");
+        ReflectionTestUtils.setField(jwtKeySet, "signatureProperties", signatureProperties);
+        ReflectionTestUtils.setField(jwtKeySet, "resourceLoader", new DefaultResourceLoader());
+        ReflectionTestUtils.invokeMethod(jwtKeySet, "init");
+
+        VerifiedTokenCache verifiedTokenCache = new VerifiedTokenCache();
+        ReflectionTestUtils.setField(verifiedTokenCache, "clock", clock);
+        ReflectionTestUtils.setField(verifiedTokenCache, "enabled", false);
+
+        TokenRevocationList tokenRevocationList = new TokenRevocationList();
+        ReflectionTestUtils.setField(tokenRevocationList, "expectedTokens", 100);
+        ReflectionTestUtils.setField(tokenRevocationList, "stateStore", new InMemoryAuthenticationStateStore());
+        ReflectionTestUtils.setField(tokenRevocationList, "clock", clock);
+        ReflectionTestUtils.setField(tokenRevocationList, "allowedClockSkew", ALLOWED_SKEW);
+        tokenRevocationList.load();
+
+        JwtTokenHandler tokenHandler = new JwtTokenHandler();
+        ReflectionTestUtils.setField(tokenHandler, "maxTokenLength", 4096);
+        ReflectionTestUtils.setField(tokenHandler, "expiration", EXPIRATION);
+        ReflectionTestUtils.setField(tokenHandler, "userAuthoritiesClaimKey", "aut");
+        ReflectionTestUtils.setField(tokenHandler, "compactAuthorities", compactAuthorities);
+        ReflectionTestUtils.setField(tokenHandler, "userIdClaimKey", "uid");
+        ReflectionTestUtils.setField(tokenHandler, "userVersionClaimKey", "ver");
+        ReflectionTestUtils.setField(tokenHandler, "appName", "spring-security-jwt");
+        ReflectionTestUtils.setField(tokenHandler, "verifier", verifier);
+        ReflectionTestUtils.setField(tokenHandler, "allowedClockSkew", ALLOWED_SKEW);
+        ReflectionTestUtils.setField(tokenHandler, "clock", clock);
+        ReflectionTestUtils.setField(tokenHandler, "verifiedTokenCache", verifiedTokenCache);
+        ReflectionTestUtils.setField(tokenHandler, "jwtKeySet", jwtKeySet);
+        ReflectionTestUtils.setField(tokenHandler, "tokenRevocationList", tokenRevocationList);
+        ReflectionTestUtils.setField(tokenHandler, "authenticationMetrics", new AuthenticationMetrics());
+        ReflectionTestUtils.setField(tokenHandler, "userStateRegistry", new UserStateRegistry());
+        tokenHandler.init();
+        return tokenHandler;
+    }
+}
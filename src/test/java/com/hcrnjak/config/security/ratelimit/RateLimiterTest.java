@@ -0,0 +1,26 @@
+package com.hcrnjak.config.security.ratelimit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class RateLimiterTest {
+
+    private static final long REFILL_PERIOD = 1000;
+
+    @Test
+    public void newKeyReplacesLeastLimitedKeyWhenFull() {
+        RateLimiter limiter = new RateLimiter(1, REFILL_PERIOD, 2);
+        assertEquals(0, limiter.tryAcquire("a", 0));
+        assertEquals(0, limiter.tryAcquire("b", 500));
+
+        // Full, new key is let through and tracked instead of 'a', whose bucket gets full first
+        assertEquals(0, limiter.tryAcquire("c", 600));
+        assertEquals(2, limiter.size());
+        assertTrue(limiter.tryAcquire("c", 600) > 0);
+
+        // More limited key is kept
+        assertTrue(limiter.tryAcquire("b", 600) > 0);
+    }
+}
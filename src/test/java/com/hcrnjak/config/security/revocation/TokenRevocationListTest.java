@@ -0,0 +1,66 @@
+package com.hcrnjak.config.security.revocation;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.hcrnjak.config.security.jwt.TokenClock;
+import com.hcrnjak.config.security.state.InMemoryAuthenticationStateStore;
+
+public class TokenRevocationListTest {
+
+    private static final long EXPIRATION = 900;
+    private static final long ALLOWED_SKEW = 30;
+    private static final long USER_ID = 1000L;
+
+    // Epoch seconds, moved forward by tests
+    private final AtomicLong now = new AtomicLong(1_500_000_000);
+
+    private TokenRevocationList revocationList;
+
+    @Before
+    public void setUp() {
+        revocationList = new TokenRevocationList();
+        ReflectionTestUtils.setField(revocationList, "expiration", EXPIRATION);
+        ReflectionTestUtils.setField(revocationList, "allowedClockSkew", ALLOWED_SKEW);
+        ReflectionTestUtils.setField(revocationList, "expectedTokens", 100);
+        ReflectionTestUtils.setField(revocationList, "stateStore", new InMemoryAuthenticationStateStore());
+        ReflectionTestUtils.setField(revocationList, "clock", (TokenClock) () -> now.get() * 1000);
+        revocationList.load();
+    }
+
+    @Test
+    public void revokedTokenIsKeptWhileItIsAcceptedWithinClockSkew() {
+        long issuedAt = now.get();
+        long expiresAt = issuedAt + EXPIRATION;
+        revocationList.revokeToken("token", USER_ID, expiresAt);
+
+        now.set(expiresAt + ALLOWED_SKEW - 1);
+        revocationList.pruneExpired();
+        assertTrue(revocationList.isRevoked("token", USER_ID, issuedAt));
+
+        now.set(expiresAt + ALLOWED_SKEW + 1);
+        revocationList.pruneExpired();
+        assertFalse(revocationList.isRevoked("token", USER_ID, issuedAt));
+    }
+
+    @Test
+    public void userRevocationIsKeptWhileTokensIssuedBeforeItAreAcceptedWithinClockSkew() {
+        long issuedAt = now.get();
+        revocationList.revokeUserTokens(USER_ID);
+
+        // Token issued just before revocation expires 'expiration' seconds later, plus skew
+        now.set(issuedAt + EXPIRATION + ALLOWED_SKEW - 1);
+        revocationList.pruneExpired();
+        assertTrue(revocationList.isRevoked("token", USER_ID, issuedAt));
+
+        now.set(issuedAt + EXPIRATION + ALLOWED_SKEW + 1);
+        revocationList.pruneExpired();
+        assertFalse(revocationList.isRevoked("token", USER_ID, issuedAt));
+    }
+}
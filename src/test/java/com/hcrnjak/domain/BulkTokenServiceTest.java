@@ -0,0 +1,54 @@
+package com.hcrnjak.domain;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.hcrnjak.config.security.jwt.JwtTokenHandler;
+import com.hcrnjak.config.security.jwt.TokenVerificationFailure;
+import com.hcrnjak.config.security.jwt.TokenVerificationResult;
+import com.hcrnjak.model.view.VerifiedToken;
+
+public class BulkTokenServiceTest {
+
+    private JwtTokenHandler jwtTokenHandler;
+    private BulkTokenService bulkTokenService;
+
+    @Before
+    public void setUp() {
+        jwtTokenHandler = mock(JwtTokenHandler.class);
+        bulkTokenService = new BulkTokenService();
+        ReflectionTestUtils.setField(bulkTokenService, "parallelism", 2);
+        ReflectionTestUtils.setField(bulkTokenService, "jwtTokenHandler", jwtTokenHandler);
+        bulkTokenService.init();
+    }
+
+    @After
+    public void tearDown() {
+        bulkTokenService.shutdown();
+    }
+
+    @Test
+    public void failingTokenDoesNotFailTheBatch() {
+        when(jwtTokenHandler.verifyToken("expired"))
+                .thenReturn(TokenVerificationResult.invalid(TokenVerificationFailure.EXPIRED));
+        when(jwtTokenHandler.verifyToken("failing")).thenThrow(new IllegalStateException("DB unavailable"));
+
+        List<VerifiedToken> results = bulkTokenService.verifyTokens(Arrays.asList("expired", "failing", ""));
+
+        assertEquals(3, results.size());
+        assertEquals("EXPIRED", results.get(0).getFailure());
+        assertFalse(results.get(1).isValid());
+        assertEquals("ERROR", results.get(1).getFailure());
+        assertEquals("MALFORMED", results.get(2).getFailure());
+    }
+}
@@ -0,0 +1,128 @@
+package com.hcrnjak.domain;
+
+import static org.junit.Assert.assertNotNull;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.hcrnjak.config.security.authentication.AuthenticatedUser;
+import com.hcrnjak.config.security.authentication.AuthenticationInfoRepository;
+import com.hcrnjak.config.security.jwt.JwtTokenHandler;
+import com.hcrnjak.config.security.jwt.TokenClock;
+import com.hcrnjak.model.RefreshToken;
+import com.hcrnjak.model.view.AuthenticationResponse;
+import com.hcrnjak.repositories.RefreshTokenRepository;
+
+public class RefreshTokenServiceTest {
+
+    private static final Long USER_ID = 1000L;
+
+    // Epoch seconds
+    private final AtomicLong now = new AtomicLong(1_500_000_000);
+
+    // Stored refresh tokens by id, and ids of used ones
+    private final Map<String, RefreshToken> storedTokens = new ConcurrentHashMap<>();
+    private final Set<String> usedTokens = new HashSet<>();
+
+    private final AuthenticatedUser user = new AuthenticatedUser(USER_ID, "user", null, "user@gmail.com",
+            Collections.emptySet(), true, 1L);
+
+    private RefreshTokenRepository refreshTokenRepository;
+    private RefreshTokenService refreshTokenService;
+
+    @Before
+    public void setUp() {
+        refreshTokenRepository = mock(RefreshTokenRepository.class);
+        when(refreshTokenRepository.save(any(RefreshToken.class))).thenAnswer(invocation -> {
+            RefreshToken token = invocation.getArgumentAt(0, RefreshToken.class);
+            storedTokens.put(token.getId(), token);
+            return token;
+        });
+        when(refreshTokenRepository.findOne(anyString()))
+                .thenAnswer(invocation -> storedTokens.get(invocation.getArgumentAt(0, String.class)));
+        when(refreshTokenRepository.markUsed(anyString()))
+                .thenAnswer(invocation -> usedTokens.add(invocation.getArgumentAt(0, String.class)) ? 1 : 0);
+        when(refreshTokenRepository.deleteFamily(anyString())).thenAnswer(invocation -> {
+            String familyId = invocation.getArgumentAt(0, String.class);
+            int sizeBefore = storedTokens.size();
+            storedTokens.values().removeIf(token -> token.getFamilyId().equals(familyId));
+            return sizeBefore - storedTokens.size();
+        });
+
+        AuthenticationInfoRepository authenticationInfoRepository = mock(AuthenticationInfoRepository.class);
+        when(authenticationInfoRepository.loadUserById(USER_ID)).thenReturn(user);
+        JwtTokenHandler jwtTokenHandler = mock(JwtTokenHandler.class);
+        when(jwtTokenHandler.generateToken(any(AuthenticatedUser.class))).thenReturn("jwt");
+
+        refreshTokenService = new RefreshTokenService();
+        ReflectionTestUtils.setField(refreshTokenService, "expiration", 3600L);
+        ReflectionTestUtils.setField(refreshTokenService, "refreshTokenRepository", refreshTokenRepository);
+        ReflectionTestUtils.setField(refreshTokenService, "authenticationInfoRepository", authenticationInfoRepository);
+        ReflectionTestUtils.setField(refreshTokenService, "jwtTokenHandler", jwtTokenHandler);
+        ReflectionTestUtils.setField(refreshTokenService, "clock", (TokenClock) () -> now.get() * 1000);
+    }
+
+    @Test(expected = BadCredentialsException.class)
+    public void missingTokenIsRejected() {
+        try {
+            refreshTokenService.refresh(null);
+        } finally {
+            verifyZeroInteractions(refreshTokenRepository);
+        }
+    }
+
+    @Test(expected = BadCredentialsException.class)
+    public void blankTokenIsRejected() {
+        try {
+            refreshTokenService.refresh(" ");
+        } finally {
+            verifyZeroInteractions(refreshTokenRepository);
+        }
+    }
+
+    @Test(expected = BadCredentialsException.class)
+    public void expiredTokenIsRejected() {
+        when(refreshTokenRepository.findOne(anyString()))
+                .thenReturn(new RefreshToken("id", 1000L, "family", now.get()));
+        refreshTokenService.refresh("token");
+    }
+
+    @Test
+    public void expiredTokensArePrunedByClockTime() {
+        refreshTokenService.pruneExpired();
+        verify(refreshTokenRepository).deleteExpired(now.get());
+    }
+
+    @Test(expected = BadCredentialsException.class)
+    public void refreshAfterLogoutIsRejected() {
+        AuthenticationResponse login = refreshTokenService.issueTokens(user);
+        AuthenticationResponse refreshed = refreshTokenService.refresh(login.getRefreshToken());
+        assertNotNull(refreshed.getRefreshToken());
+
+        refreshTokenService.revokeFamily(refreshed.getRefreshToken(), USER_ID);
+        refreshTokenService.refresh(refreshed.getRefreshToken());
+    }
+
+    @Test
+    public void logoutDoesNotRevokeRefreshTokenOfAnotherUser() {
+        AuthenticationResponse login = refreshTokenService.issueTokens(user);
+
+        refreshTokenService.revokeFamily(login.getRefreshToken(), USER_ID + 1);
+        assertNotNull(refreshTokenService.refresh(login.getRefreshToken()).getToken());
+    }
+}